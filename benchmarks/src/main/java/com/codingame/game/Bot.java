@@ -0,0 +1,17 @@
+package com.codingame.game;
+
+import java.util.Scanner;
+
+/**
+ * Moves its unit towards the target given each turn.
+ */
+public class Bot {
+    public static void main(String[] args) {
+        Scanner in = new Scanner(System.in);
+        while (true) {
+            int targetX = in.nextInt();
+            int targetY = in.nextInt();
+            System.out.println(targetX + " " + targetY);
+        }
+    }
+}
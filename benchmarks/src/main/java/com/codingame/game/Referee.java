@@ -0,0 +1,85 @@
+package com.codingame.game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.codingame.gameengine.core.AbstractPlayer.TimeoutException;
+import com.codingame.gameengine.core.AbstractReferee;
+import com.codingame.gameengine.core.MultiplayerGameManager;
+import com.codingame.gameengine.module.entities.Circle;
+import com.codingame.gameengine.module.entities.Curve;
+import com.codingame.gameengine.module.entities.GraphicEntityModule;
+import com.codingame.gameengine.module.entities.Sprite;
+import com.codingame.gameengine.module.entities.Text;
+import com.google.inject.Inject;
+
+/**
+ * A synthetic game used by the benchmarks: each turn, both players are asked for a destination for their unit while a hundred background sprites
+ * move around.
+ */
+public class Referee extends AbstractReferee {
+    private static final int SPRITE_COUNT = 100;
+
+    @Inject private MultiplayerGameManager<Player> gameManager;
+    @Inject private GraphicEntityModule graphicEntityModule;
+
+    private Random random;
+    private List<Sprite> sprites = new ArrayList<>();
+    private List<Circle> units = new ArrayList<>();
+    private Text turnText;
+
+    @Override
+    public void init() {
+        random = new Random(gameManager.getSeed());
+        gameManager.setMaxTurns(100);
+        gameManager.setFrameDuration(500);
+
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            sprites.add(
+                graphicEntityModule.createSprite()
+                    .setImage("background.png")
+                    .setX(random.nextInt(1920))
+                    .setY(random.nextInt(1080))
+                    .setAnchor(0.5)
+            );
+        }
+        for (Player player : gameManager.getPlayers()) {
+            units.add(
+                graphicEntityModule.createCircle()
+                    .setRadius(30)
+                    .setFillColor(player.getColorToken())
+                    .setX(960)
+                    .setY(540)
+            );
+        }
+        turnText = graphicEntityModule.createText("").setFontSize(40).setX(20).setY(20);
+    }
+
+    @Override
+    public void gameTurn(int turn) {
+        for (Player player : gameManager.getActivePlayers()) {
+            player.sendInputLine(random.nextInt(1920) + " " + random.nextInt(1080));
+            player.execute();
+        }
+        for (Player player : gameManager.getActivePlayers()) {
+            Circle unit = units.get(player.getIndex());
+            try {
+                String[] target = player.getOutputs().get(0).split(" ");
+                unit.setX(Integer.parseInt(target[0]), Curve.EASE_IN_AND_OUT).setY(Integer.parseInt(target[1]), Curve.EASE_IN_AND_OUT);
+                player.setScore(player.getScore() + 1);
+                gameManager.addToGameSummary(player.getNicknameToken() + " moves to " + target[0] + " " + target[1]);
+            } catch (TimeoutException | NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                player.deactivate(player.getNicknameToken() + " is lost");
+            }
+        }
+        for (int i = 0; i < SPRITE_COUNT; i++) {
+            Sprite sprite = sprites.get(i);
+            sprite.setX(random.nextInt(1920)).setY(random.nextInt(1080)).setRotation(turn * 0.1);
+            if (i % 10 == 0) {
+                graphicEntityModule.commitEntityState(0.5, sprite);
+            }
+        }
+        turnText.setText("Turn " + turn);
+    }
+}
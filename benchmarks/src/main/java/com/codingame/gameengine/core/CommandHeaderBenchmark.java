@@ -0,0 +1,54 @@
+package com.codingame.gameengine.core;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of a <code>[[COMMAND] lineCount]</code> header, compared to the regular expression it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandHeaderBenchmark {
+
+    private static final Pattern HEADER_PATTERN = Pattern.compile("\\[\\[(?<cmd>.+)\\] ?(?<lineCount>[0-9]+)\\]");
+
+    private String header = "[[SET_PLAYER_OUTPUT] 12]";
+
+    @Benchmark
+    public InputCommand parser() {
+        return InputCommand.parse(header);
+    }
+
+    @Benchmark
+    public InputCommand regex() {
+        Matcher m = HEADER_PATTERN.matcher(header);
+        if (!m.matches()) {
+            throw new RuntimeException("Error in data sent to referee");
+        }
+        return new InputCommand(InputCommand.Command.valueOf(m.group("cmd")), Integer.parseInt(m.group("lineCount")));
+    }
+
+    @Benchmark
+    public InputCommand regexCompiledPerCall() {
+        Matcher m = Pattern.compile("\\[\\[(?<cmd>.+)\\] ?(?<lineCount>[0-9]+)\\]").matcher(header);
+        if (!m.matches()) {
+            throw new RuntimeException("Error in data sent to referee");
+        }
+        return new InputCommand(InputCommand.Command.valueOf(m.group("cmd")), Integer.parseInt(m.group("lineCount")));
+    }
+}
@@ -0,0 +1,94 @@
+package com.codingame.gameengine.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JSON encoding of a key frame by a <code>GameManager</code>: <code>setViewData</code> at the end of a turn, then <code>dumpView</code> at the
+ * start of the next one, which sends the frame as text to a discarded output.
+ * <p>
+ * <code>dumpView</code> and the state of the game loop it reads are private, so they are reached by reflection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DumpViewBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int entityCount;
+
+    private GameManager<AbstractPlayer> gameManager;
+    private String moduleData;
+    private Method swapInfoAndViewData;
+    private Method dumpView;
+    private Field totalViewDataBytesSent;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        System.setProperty("game.mode", "multi");
+        gameManager = new RefereeHost().createGameManager(false);
+
+        PrintStream discarded = new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        field("transport").set(gameManager, new TextCommandTransport(new ByteArrayInputStream(new byte[0]), discarded));
+        field("turn").set(gameManager, 1);
+        field("newTurn").set(gameManager, true);
+        totalViewDataBytesSent = field("totalViewDataBytesSent");
+        swapInfoAndViewData = method("swapInfoAndViewData");
+        dumpView = method("dumpView");
+        swapInfoAndViewData.invoke(gameManager);
+
+        StringBuilder sb = new StringBuilder("U");
+        for (int i = 1; i <= entityCount; i++) {
+            sb.append(' ').append(i).append(" 1 x ").append(i * 7).append(",y ").append(i * 3).append(",a 0.5,T 'unit ").append(i).append('\'');
+        }
+        moduleData = sb.toString();
+    }
+
+    @Benchmark
+    public void dumpView() throws ReflectiveOperationException {
+        gameManager.setViewData("entitymodule", moduleData);
+        swapInfoAndViewData.invoke(gameManager);
+        // Keeps the game under the quota of view data, whatever the number of frames sent
+        totalViewDataBytesSent.setInt(gameManager, 0);
+        dumpView.invoke(gameManager);
+    }
+
+    private static Field field(String name) throws NoSuchFieldException {
+        Field field = GameManager.class.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+
+    private static Method method(String name) throws NoSuchMethodException {
+        Method method = GameManager.class.getDeclaredMethod(name);
+        method.setAccessible(true);
+        return method;
+    }
+}
@@ -0,0 +1,65 @@
+package com.codingame.gameengine.core;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Bootstrap of 1,000 back-to-back games of the synthetic referee of <code>com.codingame.game</code>, up to a game manager, a referee and two
+ * players ready to start, with a shared <code>RefereeHost</code> or with a new injector of the <code>LegacyGameEngineModule</code> for each
+ * game. Scores are per game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class RefereeBootstrapBenchmark {
+    private static final int GAME_COUNT = 1000;
+
+    private RefereeHost host;
+
+    @Setup
+    public void setup() {
+        System.setProperty("game.mode", "multi");
+        host = new RefereeHost();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAME_COUNT)
+    public void host(Blackhole blackhole) {
+        for (int i = 0; i < GAME_COUNT; i++) {
+            bootstrap(host.createInjector(), blackhole);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(GAME_COUNT)
+    public void legacy(Blackhole blackhole) {
+        for (int i = 0; i < GAME_COUNT; i++) {
+            bootstrap(Guice.createInjector(new LegacyGameEngineModule()), blackhole);
+        }
+    }
+
+    private static void bootstrap(Injector injector, Blackhole blackhole) {
+        blackhole.consume(injector.getInstance(GameEngineModule.gameManagerKey()));
+        blackhole.consume(injector.getInstance(AbstractReferee.class));
+        blackhole.consume(injector.getInstance(AbstractPlayer.class));
+        blackhole.consume(injector.getInstance(AbstractPlayer.class));
+    }
+}
@@ -0,0 +1,51 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Diff of the state of a text against its previous state, where a few of its properties changed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityStateBenchmark {
+
+    private EntityState previous;
+    private EntityState next;
+
+    @Setup
+    public void setup() {
+        Text text = new Text();
+        text.id = 1;
+        WorldState previousWorld = new WorldState("1");
+        text.setText("Score: 0").setFontSize(24).setFillColor(0xffffff).setX(100).setY(50).setAnchor(0.5).setZIndex(3);
+        previousWorld.flushEntityState(text);
+
+        WorldState nextWorld = new WorldState("1");
+        text.setText("Score: 0").setFontSize(24).setFillColor(0xffffff).setX(100).setY(50).setAnchor(0.5).setZIndex(3);
+        text.setText("Score: 10").setAlpha(0.8).setX(120);
+        nextWorld.flushEntityState(text);
+
+        previous = previousWorld.getEntityStateMap().get(text);
+        next = nextWorld.getEntityStateMap().get(text);
+    }
+
+    @Benchmark
+    public EntityState diffFromNonNullOtherState() {
+        return next.diffFromNonNullOtherState(previous);
+    }
+}
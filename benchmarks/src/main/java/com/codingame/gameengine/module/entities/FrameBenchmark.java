@@ -0,0 +1,86 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.game.Player;
+import com.codingame.game.Referee;
+import com.codingame.gameengine.core.AbstractPlayer;
+import com.codingame.gameengine.core.AbstractReferee;
+import com.codingame.gameengine.core.GameManager;
+import com.codingame.gameengine.core.MultiplayerGameManager;
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+import com.google.inject.Provides;
+import com.google.inject.TypeLiteral;
+
+/**
+ * A whole frame of the <code>GraphicEntityModule</code> on a board of static sprites, where only a few entities move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+
+    @Param({ "10000" })
+    private int staticCount;
+
+    @Param({ "100" })
+    private int movingCount;
+
+    private GraphicEntityModule module;
+    private List<Circle> moving;
+    private int turn;
+
+    @Setup
+    public void setup() {
+        module = Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(AbstractReferee.class).to(Referee.class);
+            }
+
+            @SuppressWarnings({ "unchecked", "rawtypes" })
+            @Provides
+            GameManager<AbstractPlayer> provideGameManager(Injector injector) {
+                return (GameManager) injector.getInstance(Key.get(new TypeLiteral<MultiplayerGameManager<Player>>() {}));
+            }
+        }).getInstance(GraphicEntityModule.class);
+        for (int i = 0; i < staticCount; i++) {
+            module.createSprite().setImage("tile.png").setX(i % 100 * 20).setY(i / 100 * 20);
+        }
+        moving = new ArrayList<>();
+        for (int i = 0; i < movingCount; i++) {
+            moving.add(module.createCircle().setRadius(10).setFillColor(0xff0000));
+        }
+        module.serializeFrameData();
+    }
+
+    @Benchmark
+    public String serializeFrameData() {
+        turn++;
+        for (int i = 0; i < moving.size(); i++) {
+            moving.get(i).setX((turn * 7 + i * 13) % 2000).setY((turn + i) % 1000);
+        }
+        module.commitEntityState(0.5, moving.get(turn % moving.size()));
+        return module.serializeFrameData();
+    }
+}
@@ -0,0 +1,297 @@
+package com.codingame.gameengine.module.entities;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.codingame.gameengine.module.entities.Entity.Type;
+
+/**
+ * The <code>Serializer</code> as it was before it wrote frames into a reusable buffer, kept to compare both implementations.
+ */
+class LegacySerializer {
+    public Map<String, String> commands, keys, separators;
+    Map<Entity.Type, String> types;
+    Map<Curve, String> curves;
+    private final String[] propertyKeys;
+    private static DecimalFormat decimalFormat;
+    static {
+        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
+        otherSymbols.setDecimalSeparator('.');
+        decimalFormat = new DecimalFormat("0.######");
+        decimalFormat.setGroupingUsed(false);
+        decimalFormat.setDecimalFormatSymbols(otherSymbols);
+    }
+
+    LegacySerializer() {
+        keys = new HashMap<>();
+        keys.put("rotation", "r");
+        keys.put("radius", "R");
+        keys.put("x2", "X");
+        keys.put("y2", "Y");
+        keys.put("width", "w");
+        keys.put("height", "h");
+        keys.put("tint", "t");
+        keys.put("fillColor", "f");
+        keys.put("fillAlpha", "F");
+        keys.put("lineColor", "c");
+        keys.put("lineWidth", "W");
+        keys.put("lineAlpha", "A");
+        keys.put("alpha", "a");
+        keys.put("image", "i");
+        keys.put("strokeThickness", "S");
+        keys.put("strokeColor", "sc");
+        keys.put("fontFamily", "ff");
+        keys.put("fontSize", "s");
+        keys.put("text", "T");
+        keys.put("children", "ch");
+        keys.put("scaleX", "sx");
+        keys.put("scaleY", "sy");
+        keys.put("anchorX", "ax");
+        keys.put("anchorY", "ay");
+        keys.put("visible", "v");
+        keys.put("zIndex", "z");
+        keys.put("blendMode", "b");
+        keys.put("images", "I");
+        keys.put("restarted", "rs");
+        keys.put("playing", "p");
+        keys.put("loop", "l");
+        keys.put("duration", "d");
+        keys.put("baseWidth", "bw");
+        keys.put("baseHeight", "bh");
+
+        commands = new HashMap<>();
+        commands.put("CREATE", "C");
+        commands.put("UPDATE", "U");
+        commands.put("LOADSPRITESHEET", "L");
+        commands.put("WORLDUPDATE", "W");
+
+        separators = new HashMap<>();
+        separators.put("COMMAND", ";");
+        separators.put("COMMAND_ARGUMENT", " ");
+        separators.put("ARGUMENT_DETAILS", ",");
+        separators.put("COMMAND_TYPE", "\n");
+
+        curves = new HashMap<>();
+        curves.put(Curve.NONE, "_");
+        curves.put(Curve.IMMEDIATE, "Γ");
+        curves.put(Curve.LINEAR, "/");
+        curves.put(Curve.EASE_IN_AND_OUT, "∫");
+        curves.put(Curve.ELASTIC, "~");
+
+        propertyKeys = new String[Property.VALUES.length];
+        for (Property property : Property.VALUES) {
+            propertyKeys[property.ordinal()] = keys.getOrDefault(property.getName(), property.getName());
+        }
+
+        types = new HashMap<>();
+        types.put(Type.RECTANGLE, "R");
+        types.put(Type.CIRCLE, "C");
+        types.put(Type.GROUP, "G");
+        types.put(Type.BUFFERED_GROUP, "B");
+        types.put(Type.LINE, "L");
+        types.put(Type.SPRITE, "S");
+        types.put(Type.TEXT, "T");
+        types.put(Type.SPRITEANIMATION, "A");
+
+        if (keys.values().stream().distinct().count() != keys.values().size()) {
+            throw new RuntimeException("Duplicate keys");
+        }
+        if (commands.values().stream().distinct().count() != commands.values().size()) {
+            throw new RuntimeException("Duplicate commands");
+        }
+        if (separators.values().stream().distinct().count() != separators.values().size()) {
+            throw new RuntimeException("Duplicate separators");
+        }
+        if (types.values().stream().distinct().count() != types.values().size()) {
+            throw new RuntimeException("Duplicate types");
+        }
+        if (curves.values().stream().distinct().count() != curves.values().size()) {
+            throw new RuntimeException("Duplicate curves");
+        }
+        if (keys.values().stream().anyMatch(character -> curves.containsValue(character))) {
+            throw new RuntimeException("Same string used for a curve and a property");
+        }
+        if (separators.values().stream().anyMatch(
+            character -> curves.containsValue(character) ||
+                keys.containsValue(character) ||
+                types.containsValue(character) ||
+                commands.containsValue(character)
+        )) {
+            throw new RuntimeException("String already used as separator");
+        }
+
+    }
+
+    /**
+     * Join multiple object into a space separated string
+     */
+    static private String join(Object... args) {
+        return Stream.of(args).map(String::valueOf).collect(Collectors.joining(" "));
+    }
+
+    static String formatFrameTime(double t) {
+        return decimalFormat.format(t);
+    }
+
+    static String escape(String text) {
+        String escaped = text.replaceAll("\\'", "\\\\'");
+        if (escaped.contains(" ")) {
+            return "'" + escaped + "'";
+        }
+        return escaped;
+    }
+
+    private String serializeEntitiesStateDiff(Entity<?> entity, EntityState diff, String frameInstant) {
+        String meta = join(
+            entity.getId(),
+            frameInstant
+        );
+        if (diff.isEmpty()) {
+            return meta;
+        }
+        return join(
+            meta,
+            minifyDiff(diff)
+        );
+    }
+
+    private String minifyParam(Property property, EntityState state) {
+        String result;
+
+        switch (property.getKind()) {
+        case ANGLE:
+            result = String.valueOf((int) Math.toDegrees(state.getValue(property)));
+            break;
+        case DOUBLE:
+            result = decimalFormat.format(state.getValue(property));
+            break;
+        case BOOLEAN:
+            result = state.getValue(property) != 0 ? "1" : "0";
+            break;
+        case INT:
+            result = String.valueOf((int) state.getValue(property));
+            break;
+        default:
+            result = escape(state.getString(property));
+        }
+
+        // We don't send the default curve, it will be implied.
+        Curve curve = state.getCurve(property);
+        if (curve.equals(Curve.DEFAULT)) {
+            return result;
+        }
+        return join(result, curves.get(curve));
+    }
+
+    private String minifyKey(Property property) {
+        return propertyKeys[property.ordinal()];
+    }
+
+    private String minifyDiff(EntityState diff) {
+        StringBuilder sb = new StringBuilder();
+        for (long bits = diff.getMask(); bits != 0; bits &= bits - 1) {
+            Property property = Property.VALUES[Long.numberOfTrailingZeros(bits)];
+            if (sb.length() > 0) {
+                sb.append(separators.get("COMMAND_ARGUMENT"));
+            }
+            sb.append(join(minifyKey(property), minifyParam(property, diff)));
+        }
+        return sb.toString();
+    }
+
+    private String serializeCreateEntity(Entity<?> e) {
+        return join(
+            types.get(e.getType())
+        );
+    }
+
+    public Optional<String> serializeCreateEntities(List<Entity<?>> entities) {
+        if (entities.isEmpty()) {
+            return Optional.empty();
+        } else {
+            return Optional.of(
+                commands.get("CREATE") + entities.stream()
+                    .map(e -> serializeCreateEntity(e))
+                    .collect(Collectors.joining(separators.get("COMMAND")))
+            );
+        }
+    }
+
+    private String serializeLoadSpriteSheet(SpriteSheetLoader spriteSheet) {
+        return join(
+            spriteSheet.getName(), spriteSheet.getSourceImage(),
+            spriteSheet.getWidth(), spriteSheet.getHeight(), spriteSheet.getOrigRow(), spriteSheet.getOrigCol(), spriteSheet.getImageCount(),
+            spriteSheet.getImagesPerRow()
+        );
+    }
+
+    public Optional<String> serializeLoadSpriteSheets(List<SpriteSheetLoader> spriteSheets) {
+        if (spriteSheets.isEmpty()) {
+            return Optional.empty();
+        } else {
+            return Optional.of(
+                commands.get("LOADSPRITESHEET") + spriteSheets.stream()
+                    .map(e -> serializeLoadSpriteSheet(e))
+                    .collect(Collectors.joining(separators.get("COMMAND")))
+            );
+        }
+    }
+
+    public Optional<String> serializeWorldCommits(List<String> worldCommits) {
+        if (worldCommits.isEmpty()) {
+            return Optional.empty();
+        } else {
+            return Optional.of(
+                commands.get("WORLDUPDATE") +
+                worldCommits.stream()
+                        .collect(Collectors.joining(separators.get("COMMAND_ARGUMENT")))
+            );
+        }
+    }
+
+    public Optional<String> serializeWorldDiff(List<WorldState> diffs) {
+        if (diffs.isEmpty()) {
+            return Optional.empty();
+        } else {
+            List<String> serialized = diffs.stream()
+                .map(worldDiff -> {
+                    Optional<String> result;
+                    Set<Entry<Entity<?>, EntityState>> diff = worldDiff.getEntityStateMap().entrySet();
+                    if (diff.isEmpty()) {
+                        result = Optional.empty();
+                    } else {
+                        result = Optional.of(
+                            diff
+                                .stream()
+                                .map(e -> {
+                                    return serializeEntitiesStateDiff(e.getKey(), e.getValue(), worldDiff.getFrameTime());
+                                })
+                                .collect(Collectors.joining(separators.get("COMMAND")))
+                        );
+                    }
+                    return result;
+                })
+                .filter(Optional::isPresent)
+                .map(Optional::get)
+                .collect(Collectors.toList());
+            if (serialized.isEmpty()) {
+                return Optional.empty();
+            } else {
+                return Optional.of(
+                    commands.get("UPDATE") + serialized
+                        .stream()
+                        .collect(Collectors.joining(separators.get("COMMAND")))
+                );
+            }
+        }
+    }
+
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Serialization of the world diffs of a frame with an entity commit at 0.5 and a world commit at 1, by the streaming <code>Serializer</code>,
+ * by the <code>LegacySerializer</code> it replaced and by the <code>BinaryFrameSerializer</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializerBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int entityCount;
+
+    private Serializer serializer;
+    private LegacySerializer legacySerializer;
+    private BinaryFrameSerializer binarySerializer;
+    private List<WorldState> diffs;
+
+    @Setup
+    public void setup() {
+        serializer = new Serializer();
+        legacySerializer = new LegacySerializer();
+        binarySerializer = new BinaryFrameSerializer();
+        WorldState half = new WorldState("0.5");
+        WorldState end = new WorldState("1");
+        end.markAsWorldCommit();
+        for (int i = 0; i < entityCount; i++) {
+            Circle circle = new Circle();
+            circle.id = i + 1;
+            circle.setX(i * 7).setY(i * 3).setRadius(20).setFillColor(0x00ff00).setAlpha(0.5);
+            half.flushEntityState(circle);
+            circle.setX(i * 7 + 100, Curve.EASE_IN_AND_OUT).setRotation(i * 0.1).setScale(1.5);
+            end.flushEntityState(circle);
+        }
+        diffs = Arrays.asList(half, end);
+    }
+
+    @Benchmark
+    public String serializeFrame() {
+        return serializer.serializeFrame(
+            Collections.emptyList(), Collections.emptyList(), diffs, Collections.emptyList(), Collections.emptyList()
+        );
+    }
+
+    @Benchmark
+    public String serializeBinaryFrame() {
+        return binarySerializer.serializeFrame(
+            Collections.emptyList(), Collections.emptyList(), diffs, Collections.emptyList(), Collections.emptyList()
+        );
+    }
+
+    @Benchmark
+    public Optional<String> legacySerializeWorldDiff() {
+        return legacySerializer.serializeWorldDiff(diffs);
+    }
+}
@@ -0,0 +1,56 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Diff of a world commit against the previous state of the world, where half of the entities moved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldStateBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    private int entityCount;
+
+    private WorldState previous;
+    private WorldState next;
+
+    @Setup
+    public void setup() {
+        previous = new WorldState("1");
+        next = new WorldState("1");
+        next.markAsWorldCommit();
+        for (int i = 0; i < entityCount; i++) {
+            Sprite sprite = new Sprite();
+            sprite.id = i + 1;
+            sprite.setImage("unit.png").setX(i * 7).setY(i * 3).setAnchor(0.5).setZIndex(i);
+            previous.flushEntityState(sprite);
+            sprite.setImage("unit.png").setX(i * 7).setY(i * 3).setAnchor(0.5).setZIndex(i);
+            if (i % 2 == 0) {
+                sprite.setX(i * 7 + 10).setRotation(0.25);
+            }
+            next.flushEntityState(sprite);
+        }
+    }
+
+    @Benchmark
+    public WorldState diffFromOtherWorldState() {
+        return next.diffFromOtherWorldState(previous);
+    }
+}
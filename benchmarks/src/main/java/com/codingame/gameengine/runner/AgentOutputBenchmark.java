@@ -0,0 +1,75 @@
+package com.codingame.gameengine.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reading of the lines output by an agent, once they are available.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentOutputBenchmark {
+
+    @Param({ "1", "10", "100" })
+    private int lineCount;
+
+    private BlockingPipe pipe;
+    private Agent agent;
+    private byte[] output;
+
+    @Setup
+    public void setup() {
+        pipe = new BlockingPipe(100_000);
+        agent = new Agent() {
+            @Override
+            protected OutputStream getInputStream() {
+                return null;
+            }
+
+            @Override
+            protected InputStream getOutputStream() {
+                return pipe.getSource();
+            }
+
+            @Override
+            protected InputStream getErrorStream() {
+                return null;
+            }
+
+            @Override
+            protected void runInputOutput() {
+            }
+        };
+        agent.execute();
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lineCount; i++) {
+            sb.append("MOVE ").append(i * 17 % 1000).append(' ').append(i * 31 % 1000).append('\n');
+        }
+        output = sb.toString().getBytes(Agent.UTF8);
+    }
+
+    @Benchmark
+    public String getOutput() throws IOException {
+        pipe.getSink().write(output);
+        return agent.getOutput(lineCount, 1000);
+    }
+}
@@ -0,0 +1,62 @@
+package com.codingame.gameengine.runner;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassPool;
+import javassist.CodeConverter;
+import javassist.CtClass;
+import javassist.CtConstructor;
+import javassist.CtField;
+import javassist.CtMethod;
+import javassist.Loader;
+
+/**
+ * The instrumentation of the Java AIs as it was before their classes were cached, kept to compare both implementations: every game renames and
+ * instruments the class of the AI in the default class pool and loads it with a new loader.
+ * <p>
+ * The renamed classes are numbered instead of being named at random, as random names collide within a few thousand games.
+ */
+class LegacyPlayerInstrumentation {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    static synchronized Class<?> redirectIOs(String className, PrintStream out, PrintStream err, InputStream in) {
+        try {
+            String newName = "Agent" + COUNTER.incrementAndGet();
+            ClassPool pool = ClassPool.getDefault();
+            CtClass cc = pool.getAndRename(className, newName);
+
+            cc.setModifiers(cc.getModifiers() | Modifier.PUBLIC);
+
+            for (String fieldName : new String[] { "system_out", "system_err" }) {
+                CtField field = new CtField(pool.get("java.io.PrintStream"), fieldName, cc);
+                field.setModifiers(Modifier.PUBLIC | Modifier.STATIC);
+                cc.addField(field);
+            }
+            CtField inField = new CtField(pool.get("java.io.InputStream"), "system_in", cc);
+            inField.setModifiers(Modifier.PUBLIC | Modifier.STATIC);
+            cc.addField(inField);
+
+            CodeConverter conv = new CodeConverter();
+            conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("out"), cc, "system_out");
+            conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("err"), cc, "system_err");
+            conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("in"), cc, "system_in");
+            for (CtMethod m : cc.getDeclaredMethods()) {
+                m.instrument(conv);
+            }
+            for (CtConstructor c : cc.getDeclaredConstructors()) {
+                c.instrument(conv);
+            }
+
+            Class<?> c = new Loader(pool).loadClass(newName);
+            c.getDeclaredField("system_out").set(null, out);
+            c.getDeclaredField("system_err").set(null, err);
+            c.getDeclaredField("system_in").set(null, in);
+            return c;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
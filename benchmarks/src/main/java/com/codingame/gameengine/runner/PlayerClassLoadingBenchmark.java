@@ -0,0 +1,92 @@
+package com.codingame.gameengine.runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.game.Bot;
+
+/**
+ * Loading the class of the synthetic Java AI of <code>com.codingame.game</code> for a game and running it for <code>turns</code> turns, with the
+ * class instrumented anew for each game as it used to be, loaded anew for each game from the cached bytecode, or shared between games. Scores
+ * are per game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerClassLoadingBenchmark {
+
+    @Param({ "0", "200" })
+    public int turns;
+
+    private byte[] input;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    private final PrintStream printStream = new PrintStream(output);
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < turns; i++) {
+            sb.append(i).append(' ').append(i * 7 % 1000).append('\n');
+        }
+        input = sb.toString().getBytes(Agent.UTF8);
+    }
+
+    @Benchmark
+    public int legacy() throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(input);
+        output.reset();
+        return play(LegacyPlayerInstrumentation.redirectIOs(Bot.class.getName(), printStream, printStream, in));
+    }
+
+    @Benchmark
+    public int cached() throws Exception {
+        return playWithStreams(PlayerClassCache.load(Bot.class.getName(), false));
+    }
+
+    @Benchmark
+    public int shared() throws Exception {
+        return playWithStreams(PlayerClassCache.load(Bot.class.getName(), true));
+    }
+
+    private int playWithStreams(Class<?> playerClass) throws Exception {
+        ByteArrayInputStream in = new ByteArrayInputStream(input);
+        output.reset();
+        PlayerStreams.bind(in, printStream, printStream);
+        try {
+            return play(playerClass);
+        } finally {
+            PlayerStreams.unbind();
+        }
+    }
+
+    /**
+     * Runs the AI until it fails to read the next turn, as it does at the end of a game.
+     */
+    private int play(Class<?> playerClass) throws Exception {
+        Method main = playerClass.getMethod("main", String[].class);
+        try {
+            main.invoke(null, new Object[1]);
+        } catch (java.lang.reflect.InvocationTargetException e) {
+            // The input is exhausted
+        }
+        return output.size();
+    }
+}
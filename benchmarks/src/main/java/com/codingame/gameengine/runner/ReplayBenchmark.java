@@ -0,0 +1,84 @@
+package com.codingame.gameengine.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.gameengine.runner.dto.GameResult;
+import com.google.gson.Gson;
+
+/**
+ * Archiving of the result of a 200 turns game between 2 players, as gzipped JSON or as a <code>CompressedReplay</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayBenchmark {
+
+    private GameResult result;
+
+    @Setup
+    public void setup() {
+        result = new GameResult();
+        for (int player = 0; player < 2; player++) {
+            List<String> outputs = new ArrayList<>();
+            List<String> errors = new ArrayList<>();
+            for (int turn = 0; turn < 200; turn++) {
+                // Players play every other turn
+                outputs.add(turn % 2 == player ? "MOVE " + turn % 17 + " " + turn % 11 : null);
+                errors.add(turn % 2 == player && turn % 10 == 0 ? "debug " + turn : null);
+            }
+            result.outputs.put(String.valueOf(player), outputs);
+            result.errors.put(String.valueOf(player), errors);
+        }
+        StringBuilder view = new StringBuilder();
+        for (int turn = 0; turn < 200; turn++) {
+            view.setLength(0);
+            view.append("KEY_FRAME ").append(turn).append("\n{\"entitymodule\":\"U");
+            for (int entity = 1; entity <= 50; entity++) {
+                view.append(entity).append(" 1 x ").append((turn * 7 + entity * 13) % 1920).append(";");
+            }
+            view.append("\",\"duration\":500}");
+            result.views.add(view.toString());
+            result.summaries.add(turn % 5 == 0 ? "Turn " + turn : "");
+        }
+        result.scores.put(0, 12);
+        result.scores.put(1, 8);
+    }
+
+    @Benchmark
+    public int gzippedJson() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(out), StandardCharsets.UTF_8)) {
+            writer.write(new Gson().toJson(result));
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    public int compressedReplay() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompressedReplay.write(result, out);
+        return out.size();
+    }
+}
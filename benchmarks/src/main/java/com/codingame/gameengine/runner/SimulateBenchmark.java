@@ -0,0 +1,46 @@
+package com.codingame.gameengine.runner;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.codingame.game.Bot;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * A whole game of the synthetic referee of <code>com.codingame.game</code>, played by two Java bots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SimulateBenchmark {
+
+    @Param({ "false", "true" })
+    private boolean headless;
+
+    @Param({ "false", "true" })
+    private boolean directRefereeChannel;
+
+    @Benchmark
+    public GameResult simulate() {
+        MultiplayerGameRunner gameRunner = new MultiplayerGameRunner();
+        gameRunner.setSeed(42L);
+        gameRunner.setHeadless(headless);
+        gameRunner.setDirectRefereeChannel(directRefereeChannel);
+        gameRunner.addAgent(Bot.class);
+        gameRunner.addAgent(Bot.class);
+        return gameRunner.simulate();
+    }
+}
@@ -0,0 +1,83 @@
+package com.codingame.gameengine.runner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.codingame.gameengine.runner.GameRunner.NextPlayerInfo;
+import com.codingame.gameengine.runner.dto.Tooltip;
+
+/**
+ * Decoding of the <code>NEXT_PLAYER_INFO</code>, <code>TOOLTIP</code> and <code>SCORES</code> payloads of a turn of an 8 players game by the
+ * <code>TurnPayloadParser</code>, compared to the splitting it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TurnPayloadBenchmark {
+
+    private String nextPlayerInfo = "3\n1\n50\n";
+    private String tooltips = "Player 1 collided with a wall\n17\nPlayer 4 picked up a bonus\n23\nPlayer 6 lost a life\n31\n";
+    private String scores = "0 12\n1 8\n2 -1\n3 103\n4 0\n5 47\n6 9\n7 250\n";
+
+    private final NextPlayerInfo info = new NextPlayerInfo();
+    private final List<Tooltip> tooltipList = new ArrayList<>();
+    private final Map<Integer, Integer> scoreMap = new HashMap<>();
+
+    @Benchmark
+    public void parser(Blackhole blackhole) {
+        TurnPayloadParser.parseNextPlayerInfo(nextPlayerInfo, info);
+        blackhole.consume(info.timeout);
+
+        tooltipList.clear();
+        TurnPayloadParser.parseTooltips(tooltips, 12, tooltipList);
+        blackhole.consume(tooltipList);
+
+        TurnPayloadParser.parseScores(scores, scoreMap);
+        blackhole.consume(scoreMap);
+    }
+
+    @Benchmark
+    public void split(Blackhole blackhole) {
+        String[] nextPlayerInfoData = nextPlayerInfo.split("\n");
+        info.nextPlayer = Integer.decode(nextPlayerInfoData[0]);
+        info.nbLinesNextOutput = Integer.decode(nextPlayerInfoData[1]);
+        info.timeout = Long.decode(nextPlayerInfoData[2]);
+        blackhole.consume(info.timeout);
+
+        tooltipList.clear();
+        String[] tooltipData = tooltips.split("\n");
+        for (int i = 0; i < tooltipData.length / 2; ++i) {
+            String text = tooltipData[i * 2];
+            int eventId = Integer.valueOf(tooltipData[i * 2 + 1]);
+            tooltipList.add(new Tooltip(text, eventId, 12));
+        }
+        blackhole.consume(tooltipList);
+
+        for (String line : scores.split("\n")) {
+            String[] parts = line.split(" ");
+            if (parts.length > 1) {
+                int player = Integer.decode(parts[0]);
+                int score = Integer.decode(parts[1]);
+                scoreMap.put(player, score);
+            }
+        }
+        blackhole.consume(scoreMap);
+    }
+}
@@ -0,0 +1,134 @@
+package com.codingame.gameengine.core;
+
+/**
+ * Parses the <code>[[COMMAND] lineCount]</code> headers of the text protocol between the game runner and the referee.
+ * <p>
+ * Headers are read in place, without regular expressions nor intermediate strings. Whitespace around a header is ignored.
+ *
+ * @param <E>
+ *            the enum of the commands which may be found in a header.
+ */
+public final class CommandHeaderParser<E extends Enum<E>> {
+    private final E[] commands;
+
+    /**
+     * Creates a parser of headers holding one of the constants of the given enum.
+     *
+     * @param commandType
+     *            the enum of the commands.
+     */
+    public CommandHeaderParser(Class<E> commandType) {
+        this.commands = commandType.getEnumConstants();
+    }
+
+    /**
+     * Returns the command of the given header.
+     *
+     * @param header
+     *            the header to parse.
+     * @return the command, or null if <code>header</code> is not a valid header for a known command.
+     */
+    public E parseCommand(CharSequence header) {
+        int start = skipLeadingWhitespace(header);
+        int end = skipTrailingWhitespace(header, start);
+        int commandEnd = findCommandEnd(header, start, end);
+        if (commandEnd < 0) {
+            return null;
+        }
+        int commandStart = start + 2;
+        for (E command : commands) {
+            if (regionEquals(header, commandStart, commandEnd, command.name())) {
+                return command;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of lines announced by the given header.
+     *
+     * @param header
+     *            the header to parse.
+     * @return the number of lines, or -1 if <code>header</code> is not a valid header.
+     * @exception NumberFormatException
+     *                if the number of lines does not fit in an int.
+     */
+    public int parseLineCount(CharSequence header) {
+        int start = skipLeadingWhitespace(header);
+        int end = skipTrailingWhitespace(header, start);
+        if (findCommandEnd(header, start, end) < 0) {
+            return -1;
+        }
+        int digitsStart = end - 1;
+        while (isDigit(header.charAt(digitsStart - 1))) {
+            digitsStart--;
+        }
+        int lineCount = 0;
+        for (int i = digitsStart; i < end - 1; i++) {
+            int digit = header.charAt(i) - '0';
+            if (lineCount > (Integer.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Line count too big: " + header);
+            }
+            lineCount = lineCount * 10 + digit;
+        }
+        return lineCount;
+    }
+
+    /**
+     * Checks the structure of the header between <code>start</code> and <code>end</code>.
+     *
+     * @return the index of the <code>]</code> closing the command, or -1 if the header is not valid.
+     */
+    private static int findCommandEnd(CharSequence header, int start, int end) {
+        // "[[" + at least one char + "]" + at least one digit + "]"
+        if (end - start < 6 || header.charAt(start) != '[' || header.charAt(start + 1) != '[' || header.charAt(end - 1) != ']') {
+            return -1;
+        }
+        int i = end - 2;
+        while (i > start + 2 && isDigit(header.charAt(i))) {
+            i--;
+        }
+        if (i == end - 2) {
+            return -1;
+        }
+        if (header.charAt(i) == ' ') {
+            i--;
+        }
+        if (i <= start + 2 || header.charAt(i) != ']') {
+            return -1;
+        }
+        return i;
+    }
+
+    private static boolean regionEquals(CharSequence header, int start, int end, String name) {
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (header.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int skipLeadingWhitespace(CharSequence header) {
+        int start = 0;
+        while (start < header.length() && header.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int skipTrailingWhitespace(CharSequence header, int start) {
+        int end = header.length();
+        while (end > start && header.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+}
@@ -0,0 +1,24 @@
+package com.codingame.gameengine.core;
+
+/**
+ * The way the <code>GameManager</code> exchanges commands with the game runner.
+ */
+interface CommandTransport {
+
+    /**
+     * Waits for the next command of the game runner.
+     * 
+     * @return the command along with all its lines.
+     */
+    InputCommand receive();
+
+    /**
+     * Sends data to the game runner.
+     * 
+     * @param data
+     *            the command and its lines.
+     */
+    void send(OutputData data);
+
+    void close();
+}
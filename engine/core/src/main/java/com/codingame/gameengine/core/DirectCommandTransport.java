@@ -0,0 +1,40 @@
+package com.codingame.gameengine.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import com.codingame.gameengine.core.RefereeChannel.Message;
+
+/**
+ * Exchanges commands with a game runner of the same JVM through a <code>RefereeChannel</code>, without any text encoding.
+ */
+class DirectCommandTransport implements CommandTransport {
+    private final RefereeChannel channel;
+
+    DirectCommandTransport(RefereeChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public InputCommand receive() {
+        try {
+            Message message = channel.receiveFromRunner();
+            return new InputCommand(InputCommand.Command.valueOf(message.getCommand()), new ArrayList<>(message.getLines()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the game runner", e);
+        }
+    }
+
+    @Override
+    public void send(OutputData data) {
+        String content = data.getContent();
+        channel.sendToRunner(
+            new Message(data.getCommand().name(), content.isEmpty() ? Collections.emptyList() : Collections.singletonList(content))
+        );
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -1,100 +1,161 @@
 package com.codingame.gameengine.core;
 
-import java.lang.reflect.Type;
-
-import javax.inject.Provider;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
 
+import com.google.gson.Gson;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
 import com.google.inject.Key;
-import com.google.inject.Provides;
+import com.google.inject.Provider;
 import com.google.inject.Singleton;
+import com.google.inject.TypeLiteral;
 import com.google.inject.util.Types;
 
+/**
+ * Binds the referee, the players and the game manager of the game found in <code>com.codingame.game</code>.
+ * <p>
+ * A module is meant to be reused for many games, each in its own injector. The game mode is read once, the classes of the referee and the
+ * player are resolved on first use and their constructors are kept, and a single <code>Gson</code> is shared. Bindings are declared
+ * explicitly rather than with <code>@Provides</code> methods, which Guice would find again by reflection for every injector.
+ */
 class GameEngineModule extends AbstractModule {
+    private static final Key<GameManager<AbstractPlayer>> GAME_MANAGER_KEY = Key.get(new TypeLiteral<GameManager<AbstractPlayer>>() {
+    });
+    private static final Key<MultiplayerGameManager<AbstractMultiplayerPlayer>> MULTIPLAYER_GAME_MANAGER_KEY = Key
+        .get(new TypeLiteral<MultiplayerGameManager<AbstractMultiplayerPlayer>>() {
+        });
+    private static final Key<SoloGameManager<AbstractSoloPlayer>> SOLO_GAME_MANAGER_KEY = Key.get(new TypeLiteral<SoloGameManager<AbstractSoloPlayer>>() {
+    });
+
+    private final String gameMode = System.getProperty("game.mode");
+    private final Gson gson = new Gson();
+    private volatile Constructor<? extends AbstractReferee> refereeConstructor;
+    private volatile Constructor<? extends AbstractPlayer> playerConstructor;
+    private volatile Key<?> gameManagerImplementationKey;
+
+    static Key<GameManager<AbstractPlayer>> gameManagerKey() {
+        return GAME_MANAGER_KEY;
+    }
+
+    String getGameMode() {
+        return gameMode;
+    }
 
     @Override
     protected void configure() {
-    }
+        Provider<Injector> injector = getProvider(Injector.class);
 
-    @SuppressWarnings("unchecked")
-    private Class<? extends AbstractPlayer> getPlayerClass() throws ClassNotFoundException {
-        return (Class<? extends AbstractPlayer>) Class.forName("com.codingame.game.Player");
+        // Immutable and thread safe, so shared by all the games instead of being built for each of them
+        bind(Gson.class).toProvider(() -> gson);
+
+        bind(AbstractReferee.class).toProvider(() -> {
+            AbstractReferee referee = newInstance(getRefereeConstructor());
+            injector.get().injectMembers(referee);
+            return referee;
+        }).in(Singleton.class);
+
+        bind(AbstractPlayer.class).toProvider(() -> {
+            AbstractPlayer player = newInstance(getPlayerConstructor());
+            injector.get().injectMembers(player);
+            return player;
+        });
+
+        bind(GAME_MANAGER_KEY).toProvider(() -> {
+            if (isMulti()) {
+                return castGameManager(injector.get().getInstance(MULTIPLAYER_GAME_MANAGER_KEY));
+            } else if (isSolo()) {
+                return castGameManager(injector.get().getInstance(SOLO_GAME_MANAGER_KEY));
+            } else {
+                throw new RuntimeException("Unknown game mode");
+            }
+        }).in(Singleton.class);
+
+        bind(MULTIPLAYER_GAME_MANAGER_KEY).toProvider(() -> {
+            if (isMulti()) {
+                return castGameManager(injector.get().getInstance(getGameManagerImplementationKey()));
+            } else if (isSolo()) {
+                throw new RuntimeException("Cannot use MultiplayerGameManager in a solo player game");
+            } else {
+                throw new RuntimeException("Unknown game mode");
+            }
+        }).in(Singleton.class);
+
+        bind(SOLO_GAME_MANAGER_KEY).toProvider(() -> {
+            if (isSolo()) {
+                return castGameManager(injector.get().getInstance(getGameManagerImplementationKey()));
+            } else if (isMulti()) {
+                throw new RuntimeException("Cannot use SoloGameManager in a multiplayer game");
+            } else {
+                throw new RuntimeException("Unknown game mode");
+            }
+        }).in(Singleton.class);
     }
 
     @SuppressWarnings("unchecked")
-    private Class<? extends AbstractReferee> getRefereeClass() throws ClassNotFoundException {
-        return (Class<? extends AbstractReferee>) Class.forName("com.codingame.game.Referee");
+    private static <T> T castGameManager(Object gameManager) {
+        return (T) gameManager;
     }
 
-    @Provides
-    @Singleton
-    AbstractReferee provideAbstractReferee(Injector injector) throws InstantiationException, IllegalAccessException, ClassNotFoundException {
-        AbstractReferee referee = getRefereeClass().newInstance();
-        injector.injectMembers(referee);
-        return referee;
+    private static <T> T newInstance(Constructor<T> constructor) {
+        try {
+            return constructor.newInstance();
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Cannot instantiate " + constructor.getDeclaringClass().getName(), e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException("Cannot instantiate " + constructor.getDeclaringClass().getName(), e);
+        }
     }
 
-    @Provides
-    AbstractPlayer providePlayer(Injector injector) throws InstantiationException, IllegalAccessException, ClassNotFoundException {
-        AbstractPlayer abstractPlayer = getPlayerClass().newInstance();
-        injector.injectMembers(abstractPlayer);
+    private Constructor<? extends AbstractReferee> getRefereeConstructor() {
+        if (refereeConstructor == null) {
+            refereeConstructor = getConstructor(loadGameClass("com.codingame.game.Referee", AbstractReferee.class));
+        }
+        return refereeConstructor;
+    }
 
-        return abstractPlayer;
+    private Constructor<? extends AbstractPlayer> getPlayerConstructor() {
+        if (playerConstructor == null) {
+            playerConstructor = getConstructor(loadGameClass("com.codingame.game.Player", AbstractPlayer.class));
+        }
+        return playerConstructor;
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    @Provides
-    @Singleton
-    GameManager<AbstractPlayer> provideGameManager(
-        Injector injector, Provider<SoloGameManager<AbstractSoloPlayer>> soloProvider,
-        Provider<MultiplayerGameManager<AbstractMultiplayerPlayer>> multiProvider
-    ) throws ClassNotFoundException {
-        if (isMulti()) {
-            return (GameManager) multiProvider.get();
-        } else if (isSolo()) {
-            return (GameManager) soloProvider.get();
-        } else {
-            throw new RuntimeException("Unknown game mode");
+    /**
+     * @return the key of the game manager of the player class, such as <code>MultiplayerGameManager&lt;Player&gt;</code>
+     */
+    private Key<?> getGameManagerImplementationKey() {
+        if (gameManagerImplementationKey == null) {
+            Class<?> gameManagerClass = isMulti() ? MultiplayerGameManager.class : SoloGameManager.class;
+            gameManagerImplementationKey = Key.get(Types.newParameterizedType(gameManagerClass, getPlayerConstructor().getDeclaringClass()));
         }
+        return gameManagerImplementationKey;
     }
 
-    @SuppressWarnings("unchecked")
-    @Provides
-    @Singleton
-    MultiplayerGameManager<AbstractMultiplayerPlayer> provideMultiplayerGameManager(Injector injector) throws ClassNotFoundException {
-        if (isMulti()) {
-            Type type = Types.newParameterizedType(MultiplayerGameManager.class, getPlayerClass());
-            MultiplayerGameManager<AbstractMultiplayerPlayer> gameManager = (MultiplayerGameManager<AbstractMultiplayerPlayer>) injector
-                .getInstance(Key.get(type));
-            return gameManager;
-        } else if (isSolo()) {
-            throw new RuntimeException("Cannot use MultiplayerGameManager in a solo player game");
-        } else {
-            throw new RuntimeException("Unknown game mode");
+    private static <T> Class<? extends T> loadGameClass(String name, Class<T> type) {
+        try {
+            return Class.forName(name).asSubclass(type);
+        } catch (ClassNotFoundException e) {
+            throw new RuntimeException("Cannot find the class " + name, e);
         }
     }
 
-    @SuppressWarnings("unchecked")
-    @Provides
-    @Singleton
-    SoloGameManager<AbstractSoloPlayer> provideSoloGameManager(Injector injector) throws ClassNotFoundException {
-        if (isSolo()) {
-            Type type = Types.newParameterizedType(SoloGameManager.class, getPlayerClass());
-            SoloGameManager<AbstractSoloPlayer> gameManager = (SoloGameManager<AbstractSoloPlayer>) injector.getInstance(Key.get(type));
-            return gameManager;
-        } else if (isMulti()) {
-            throw new RuntimeException("Cannot use SoloGameManager in a multiplayer game");
-        } else {
-            throw new RuntimeException("Unknown game mode");
+    private static <T> Constructor<? extends T> getConstructor(Class<? extends T> type) {
+        try {
+            return type.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("The class " + type.getName() + " must have a constructor without parameters", e);
         }
     }
 
     private boolean isMulti() {
-        return "multi".equals(System.getProperty("game.mode"));
+        return "multi".equals(gameMode);
     }
 
     private boolean isSolo() {
-        return "solo".equals(System.getProperty("game.mode"));
+        return "solo".equals(gameMode);
     }
-}
\ No newline at end of file
+}
@@ -8,7 +8,6 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Scanner;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -48,8 +47,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
     private Integer turn = null;
     private int frame = 0;
     private boolean gameEnd = false;
-    private Scanner s;
-    protected PrintStream out;
+    private CommandTransport transport;
     private AbstractReferee referee;
     private boolean newTurn;
 
@@ -77,6 +75,8 @@ abstract public class GameManager<T extends AbstractPlayer> {
 
     private boolean viewWarning, summaryWarning;
 
+    private boolean headless = false;
+
     /**
      * GameManager main loop.
      * 
@@ -86,16 +86,24 @@ abstract public class GameManager<T extends AbstractPlayer> {
      *            print stream used to issue commands to Game
      */
     void start(InputStream is, PrintStream out) {
-        s = new Scanner(is);
+        start(new TextCommandTransport(is, out));
+    }
+
+    /**
+     * GameManager main loop.
+     * 
+     * @param transport
+     *            the transport used to exchange commands with Game
+     */
+    void start(CommandTransport transport) {
+        this.transport = transport;
         try {
-            this.out = out;
             this.referee = refereeProvider.get();
 
             // Init ---------------------------------------------------------------
             log.info("Init");
-            InputCommand iCmd = InputCommand.parse(s.nextLine());
-            int playerCount = s.nextInt();
-            s.nextLine();
+            InputCommand iCmd = transport.receive();
+            int playerCount = Integer.parseInt(iCmd.lines.get(0).trim());
             players = new ArrayList<T>(playerCount);
 
             for (int i = 0; i < playerCount; i++) {
@@ -104,7 +112,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
                 players.add(player);
             }
 
-            readGameProperties(iCmd, s);
+            readGameProperties(iCmd);
 
             prevViewData = null;
             currentViewData = new JsonObject();
@@ -146,18 +154,18 @@ abstract public class GameManager<T extends AbstractPlayer> {
             dumpMetadata();
             dumpScores();
 
-            s.close();
+            transport.close();
 
         } catch (RuntimeException e) {
             dumpFail(e);
-            s.close();
+            transport.close();
             throw e;
         }
     }
 
     abstract protected boolean allPlayersInactive();
 
-    abstract protected void readGameProperties(InputCommand iCmd, Scanner s);
+    abstract protected void readGameProperties(InputCommand iCmd);
 
     /**
      * Executes a player for a maximum of turnMaxTime milliseconds and store the output. Used by player.execute().
@@ -172,7 +180,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
 
         player.setTimeout(false);
 
-        InputCommand iCmd = InputCommand.parse(s.nextLine());
+        InputCommand iCmd = transport.receive();
 
         if (iCmd.cmd != InputCommand.Command.GET_GAME_INFO) {
             throw new RuntimeException("Invalid command: " + iCmd.cmd);
@@ -187,13 +195,9 @@ abstract public class GameManager<T extends AbstractPlayer> {
         dumpNextPlayerInfos(player.getIndex(), player.getExpectedOutputLines(), player.hasNeverBeenExecuted() ? firstTurnMaxTime : turnMaxTime);
 
         // READ PLAYER OUTPUTS
-        iCmd = InputCommand.parse(s.nextLine());
+        iCmd = transport.receive();
         if (iCmd.cmd == InputCommand.Command.SET_PLAYER_OUTPUT) {
-            List<String> output = new ArrayList<>(iCmd.lineCount);
-            for (int i = 0; i < iCmd.lineCount; i++) {
-                output.add(s.nextLine());
-            }
-            player.setOutputs(output);
+            player.setOutputs(iCmd.lines);
         } else if (iCmd.cmd == InputCommand.Command.SET_PLAYER_TIMEOUT) {
             player.setTimeout(true);
         } else {
@@ -227,7 +231,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
     private void dumpMetadata() {
         OutputData data = new OutputData(OutputCommand.METADATA);
         data.add(getMetadata());
-        out.println(data);
+        send(data);
     }
 
     private void dumpScores() {
@@ -237,7 +241,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
             playerScores.add(player.getIndex() + " " + player.getScore());
         }
         data.addAll(playerScores);
-        out.println(data);
+        send(data);
     }
 
     private void dumpFail(RuntimeException e) {
@@ -247,11 +251,16 @@ abstract public class GameManager<T extends AbstractPlayer> {
         e.printStackTrace(pw);
 
         data.add(sw.toString());
-        out.println(data);
+        send(data);
     }
 
     private void dumpView() {
         OutputData data = new OutputData(OutputCommand.VIEW);
+        if (headless) {
+            send(data);
+            frame++;
+            return;
+        }
         if (newTurn) {
             data.add("KEY_FRAME " + frame);
             if (turn == 0) {
@@ -265,9 +274,7 @@ abstract public class GameManager<T extends AbstractPlayer> {
         } else {
             data.add("INTERMEDIATE_FRAME " + frame);
         }
-        String viewData = data.toString();
-
-        totalViewDataBytesSent += viewData.length();
+        totalViewDataBytesSent += data.getTextLength();
         if (totalViewDataBytesSent > VIEW_DATA_TOTAL_HARD_QUOTA) {
             throw new RuntimeException("The amount of data sent to the viewer is too big!");
         } else if (totalViewDataBytesSent > VIEW_DATA_TOTAL_SOFT_QUOTA && !viewWarning) {
@@ -275,20 +282,20 @@ abstract public class GameManager<T extends AbstractPlayer> {
             viewWarning = true;
         }
 
-        log.info(viewData);
-        out.println(viewData);
+        log.info(data);
+        send(data);
 
         frame++;
     }
 
     private void dumpInfos() {
         OutputData data = new OutputData(OutputCommand.INFOS);
-        out.println(data);
+        send(data);
 
         if (newTurn && prevGameSummary != null) {
             OutputData summary = new OutputData(getGameSummaryOutputCommand());
             summary.addAll(prevGameSummary);
-            out.println(summary);
+            send(summary);
         }
 
         if (newTurn && prevTooltips != null && !prevTooltips.isEmpty()) {
@@ -297,24 +304,28 @@ abstract public class GameManager<T extends AbstractPlayer> {
                 data.add(t.message);
                 data.add(String.valueOf(t.player));
             }
-            out.println(data);
+            send(data);
         }
     }
 
     abstract protected OutputCommand getGameSummaryOutputCommand();
 
+    void send(OutputData data) {
+        transport.send(data);
+    }
+
     private void dumpNextPlayerInfos(int nextPlayer, int expectedOutputLineCount, int timeout) {
         OutputData data = new OutputData(OutputCommand.NEXT_PLAYER_INFO);
         data.add(String.valueOf(nextPlayer));
         data.add(String.valueOf(expectedOutputLineCount));
         data.add(String.valueOf(timeout));
-        out.println(data);
+        send(data);
     }
 
     private void dumpNextPlayerInput(String[] input) {
         OutputData data = new OutputData(OutputCommand.NEXT_PLAYER_INPUT);
         data.addAll(input);
-        out.println(data);
+        send(data);
         if (log.isInfoEnabled()) {
             log.info(data);
         }
@@ -332,6 +343,10 @@ abstract public class GameManager<T extends AbstractPlayer> {
         return this.outputsRead;
     }
 
+    void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
     //
     // Public methods used by Referee:
     //
@@ -357,7 +372,9 @@ abstract public class GameManager<T extends AbstractPlayer> {
     public void setFrameDuration(int frameDuration) {
         if (this.frameDuration != frameDuration) {
             this.frameDuration = frameDuration;
-            currentViewData.addProperty("duration", frameDuration);
+            if (!headless) {
+                currentViewData.addProperty("duration", frameDuration);
+            }
         }
     }
 
@@ -457,7 +474,9 @@ abstract public class GameManager<T extends AbstractPlayer> {
      *            any object that can be serialized in JSON using gson.
      */
     public void setViewData(String moduleName, Object data) {
-        this.currentViewData.add(moduleName, gson.toJsonTree(data));
+        if (!headless) {
+            this.currentViewData.add(moduleName, gson.toJsonTree(data));
+        }
     }
 
     /**
@@ -472,7 +491,20 @@ abstract public class GameManager<T extends AbstractPlayer> {
         if (initDone) {
             throw new IllegalStateException("Impossible to send global data to view outside of init phase");
         }
-        this.globalViewData.add(moduleName, gson.toJsonTree(data));
+        if (!headless) {
+            this.globalViewData.add(moduleName, gson.toJsonTree(data));
+        }
+    }
+
+    /**
+     * Returns whether the game is run without a viewer, typically for batch simulations.
+     * <p>
+     * In that case all view data is discarded and modules may skip computing it. Scores, game summaries and metadata are not affected.
+     * 
+     * @return true if no view data is sent for this game.
+     */
+    public boolean isHeadless() {
+        return headless;
     }
 
     /**
@@ -1,30 +1,35 @@
 package com.codingame.gameengine.core;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Collections;
+import java.util.List;
 
 class InputCommand {
     public static enum Command {
         INIT, GET_GAME_INFO, SET_PLAYER_OUTPUT, SET_PLAYER_TIMEOUT
     }
 
+    private static final CommandHeaderParser<Command> HEADER_PARSER = new CommandHeaderParser<>(Command.class);
+
     public Command cmd;
     public int lineCount;
+    public List<String> lines;
 
     public InputCommand(Command cmd, int lineCount) {
         this.cmd = cmd;
         this.lineCount = lineCount;
+        this.lines = Collections.emptyList();
+    }
+
+    public InputCommand(Command cmd, List<String> lines) {
+        this.cmd = cmd;
+        this.lineCount = lines.size();
+        this.lines = lines;
     }
 
     static InputCommand parse(String line) {
-        final Pattern HEADER_PATTERN = Pattern.compile("\\[\\[(?<cmd>.+)\\] ?(?<lineCount>[0-9]+)\\]");
-        
-        Matcher m = HEADER_PATTERN.matcher(line);
-        if (!m.matches())
+        Command cmd = HEADER_PARSER.parseCommand(line);
+        if (cmd == null)
             throw new RuntimeException("Error in data sent to referee");
-        
-        Command cmd = Command.valueOf(m.group("cmd"));
-        int lineCount = Integer.parseInt(m.group("lineCount"));
-        
-        return new InputCommand(cmd, lineCount);
+
+        return new InputCommand(cmd, HEADER_PARSER.parseLineCount(line));
     }
 }
@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.util.List;
 import java.util.Properties;
-import java.util.Scanner;
 import java.util.Map.Entry;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Collectors;
@@ -25,13 +24,13 @@ public final class MultiplayerGameManager<T extends AbstractMultiplayerPlayer> e
     private long seed;
 
     @Override
-    protected void readGameProperties(InputCommand iCmd, Scanner s) {
+    protected void readGameProperties(InputCommand iCmd) {
         // create game properties
         gameParameters = new Properties();
         if (iCmd.lineCount > 0) {
             for (int i = 0; i < (iCmd.lineCount - 1); i++) {
                 try {
-                    gameParameters.load(new StringReader(s.nextLine()));
+                    gameParameters.load(new StringReader(iCmd.lines.get(i + 1)));
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -50,13 +49,14 @@ public final class MultiplayerGameManager<T extends AbstractMultiplayerPlayer> e
 
     @Override
     protected void dumpGameProperties() {
-        out.println(OutputCommand.UINPUT.format(gameParameters.size()));
+        // Untrimmed, so that the header counts the parameters and the last value keeps its trailing whitespace
+        OutputData data = new OutputData(OutputCommand.UINPUT, false);
         log.info(OutputCommand.UINPUT.format(gameParameters.size()));
         for (Entry<Object, Object> t : gameParameters.entrySet()) {
-            out.println(t.getKey() + "=" + t.getValue());
+            data.add(t.getKey() + "=" + t.getValue());
             log.info(t.getKey() + "=" + t.getValue());
-            
         }
+        send(data);
     }
 
     /**
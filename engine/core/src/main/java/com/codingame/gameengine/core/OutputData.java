@@ -8,38 +8,119 @@ import java.util.List;
 @SuppressWarnings("serial")
 class OutputData extends LinkedList<String> {
     private OutputCommand command;
+    private final boolean trimmed;
+    private String content;
 
     public OutputData(OutputCommand command) {
+        this(command, true);
+    }
+
+    /**
+     * @param command
+     *            the command to send
+     * @param trimmed
+     *            false to send the lines exactly as they are added, with as many lines in the header as there were lines added
+     */
+    OutputData(OutputCommand command, boolean trimmed) {
         this.command = command;
+        this.trimmed = trimmed;
     }
 
     public boolean add(String s) {
-        if (s != null)
+        if (s != null) {
+            content = null;
             return super.add(s);
+        }
         return false;
     }
 
     public void addAll(String[] data) {
-        if (data != null)
+        if (data != null) {
+            content = null;
             super.addAll(Arrays.asList(data));
+        }
     }
     
     public void addAll(List<String> data) {
-        if (data != null)
+        if (data != null) {
+            content = null;
             super.addAll(data);
+        }
+    }
+
+    OutputCommand getCommand() {
+        return command;
+    }
+
+    /**
+     * @return the lines of this data as they are sent in text, trimmed unless this data was created untrimmed.
+     */
+    String getContent() {
+        if (content == null) {
+            if (trimmed) {
+                StringBuilder sb = new StringBuilder();
+                for (String line : this) {
+                    sb.append(line).append('\n');
+                }
+                content = sb.toString().trim();
+            } else {
+                content = String.join("\n", this);
+            }
+        }
+        return content;
+    }
+
+    private int getLineCount(String content) {
+        return trimmed ? countLines(content) : size();
+    }
+
+    /**
+     * @return the length of this data once formatted by <code>toString()</code>, without formatting it.
+     */
+    int getTextLength() {
+        String content = getContent();
+        int length = command.format(getLineCount(content)).length();
+        if (trimmed ? content.length() > 0 : !isEmpty()) {
+            length += System.lineSeparator().length() + content.length();
+        }
+        return length;
+    }
+
+    private static int countLines(String content) {
+        if (content.isEmpty()) {
+            return 0;
+        }
+        // Same count as splitting on "\r\n|\r|\n", knowing that the content is trimmed
+        int count = 1;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                count++;
+            } else if (c == '\r') {
+                count++;
+                if (i + 1 < content.length() && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+            }
+        }
+        return count;
     }
 
     @Override
     public String toString() {
         StringWriter writer = new StringWriter();
-        StringBuilder sb = new StringBuilder();
-        for (String line : this) {
-            sb.append(line).append('\n');
-        }
-        String content = sb.toString().trim();
-        int length = (content.length() > 0) ? content.split("\r\n|\r|\n").length : 0;            
+        String content = getContent();
+        int length = getLineCount(content);
 
         PrintWriter out = new PrintWriter(writer);
+        if (!trimmed) {
+            out.print(this.command.format(length));
+            if (!isEmpty()) {
+                out.println();
+                out.print(content);
+            }
+            return writer.toString();
+        }
         out.println(this.command.format(length));
         out.print(content);
 
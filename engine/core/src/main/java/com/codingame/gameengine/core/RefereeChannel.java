@@ -0,0 +1,89 @@
+package com.codingame.gameengine.core;
+
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A direct link between a game runner and a referee running in the same JVM.
+ * <p>
+ * Commands are handed over as <code>Message</code> objects instead of being formatted and parsed as text. Use
+ * <code>RefereeMain.start(RefereeChannel, boolean)</code> to run a referee on a channel.
+ */
+public final class RefereeChannel {
+
+    /**
+     * A command exchanged between the game runner and the referee, along with its lines of data.
+     * <p>
+     * The commands sent by the referee hold all their data in a single element, its lines separated by line breaks, or no element at all when
+     * there is no data.
+     */
+    public static final class Message {
+        private final String command;
+        private final List<String> lines;
+
+        /**
+         * Creates a message.
+         *
+         * @param command
+         *            the name of the command
+         * @param lines
+         *            the lines of data of the command
+         */
+        public Message(String command, List<String> lines) {
+            this.command = command;
+            this.lines = lines;
+        }
+
+        /**
+         * @return the name of the command
+         */
+        public String getCommand() {
+            return command;
+        }
+
+        /**
+         * @return the lines of data of the command
+         */
+        public List<String> getLines() {
+            return lines;
+        }
+    }
+
+    private final BlockingQueue<Message> toReferee = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Message> toRunner = new LinkedBlockingQueue<>();
+
+    /**
+     * Sends a command to the referee.
+     *
+     * @param message
+     *            the command to send
+     */
+    public void sendToReferee(Message message) {
+        toReferee.add(message);
+    }
+
+    /**
+     * Waits for the next command sent by the referee.
+     *
+     * @param timeout
+     *            the maximum time to wait
+     * @param unit
+     *            the unit of <code>timeout</code>
+     * @return the command, or null if the timeout elapsed first
+     * @throws InterruptedException
+     *             if the current thread is interrupted while waiting
+     */
+    public Message receiveFromReferee(long timeout, TimeUnit unit) throws InterruptedException {
+        return toRunner.poll(timeout, unit);
+    }
+
+    void sendToRunner(Message message) {
+        toRunner.add(message);
+    }
+
+    Message receiveFromRunner() throws InterruptedException {
+        return toReferee.take();
+    }
+}
@@ -0,0 +1,67 @@
+package com.codingame.gameengine.core;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+
+/**
+ * Runs the games of the referee found in <code>com.codingame.game</code>, one after another or concurrently, sharing the bootstrap work
+ * between them.
+ * <p>
+ * The game mode, the classes of the referee and the player and the bindings of the engine are resolved once per host. Each game still gets its
+ * own Guice injector, so that the game manager, the referee, the players and the modules of a game are never shared with another game.
+ */
+public final class RefereeHost {
+    private final GameEngineModule module = new GameEngineModule();
+
+    /**
+     * Creates a host for the game mode currently set in the <code>game.mode</code> system property.
+     */
+    public RefereeHost() {
+    }
+
+    /**
+     * @return the game mode of the games run by this host
+     */
+    public String getGameMode() {
+        return module.getGameMode();
+    }
+
+    /**
+     * Runs a game reading commands from <code>is</code> and writing its results to <code>out</code>.
+     * 
+     * @param is
+     *            input stream used to read commands from the game runner
+     * @param out
+     *            print stream used to issue commands to the game runner
+     * @param headless
+     *            true to run the game without computing any view data
+     */
+    public void start(InputStream is, PrintStream out, boolean headless) {
+        createGameManager(headless).start(is, out);
+    }
+
+    /**
+     * Runs a game exchanging commands with a game runner of the same JVM through the given channel.
+     * 
+     * @param channel
+     *            the channel shared with the game runner
+     * @param headless
+     *            true to run the game without computing any view data
+     */
+    public void start(RefereeChannel channel, boolean headless) {
+        createGameManager(headless).start(new DirectCommandTransport(channel));
+    }
+
+    Injector createInjector() {
+        return Guice.createInjector(module);
+    }
+
+    GameManager<AbstractPlayer> createGameManager(boolean headless) {
+        GameManager<AbstractPlayer> gameManager = createInjector().getInstance(GameEngineModule.gameManagerKey());
+        gameManager.setHeadless(headless);
+        return gameManager;
+    }
+}
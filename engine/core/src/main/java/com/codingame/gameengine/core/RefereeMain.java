@@ -4,16 +4,12 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
-import java.lang.reflect.Type;
-
-import com.google.inject.Guice;
-import com.google.inject.Injector;
-import com.google.inject.Key;
-import com.google.inject.util.Types;
+import java.util.Objects;
 
 public class RefereeMain {
 
     private static boolean inProduction = false;
+    private static volatile RefereeHost host;
 
     public static boolean isInProduction() {
         return inProduction;
@@ -38,14 +34,45 @@ public class RefereeMain {
         start(in, out);
     }
 
-    @SuppressWarnings("unchecked")
     public static void start(InputStream is, PrintStream out) {
+        start(is, out, false);
+    }
 
-        Injector injector = Guice.createInjector(new GameEngineModule());
+    /**
+     * Runs a game reading commands from <code>is</code> and writing its results to <code>out</code>.
+     * 
+     * @param is
+     *            input stream used to read commands from the game runner
+     * @param out
+     *            print stream used to issue commands to the game runner
+     * @param headless
+     *            true to run the game without computing any view data
+     */
+    public static void start(InputStream is, PrintStream out, boolean headless) {
+        getHost().start(is, out, headless);
+    }
 
-        Type type = Types.newParameterizedType(GameManager.class, AbstractPlayer.class);
-        GameManager<AbstractPlayer> gameManager = (GameManager<AbstractPlayer>) injector.getInstance(Key.get(type));
+    /**
+     * Runs a game exchanging commands with a game runner of the same JVM through the given channel.
+     * 
+     * @param channel
+     *            the channel shared with the game runner
+     * @param headless
+     *            true to run the game without computing any view data
+     */
+    public static void start(RefereeChannel channel, boolean headless) {
+        getHost().start(channel, headless);
+    }
 
-        gameManager.start(is, out);
+    /**
+     * @return a host shared by the games of the current game mode, which a game runner may change between games
+     */
+    private static RefereeHost getHost() {
+        RefereeHost current = host;
+        if (current == null || !Objects.equals(current.getGameMode(), System.getProperty("game.mode"))) {
+            current = new RefereeHost();
+            host = current;
+        }
+        return current;
     }
-}
\ No newline at end of file
+}
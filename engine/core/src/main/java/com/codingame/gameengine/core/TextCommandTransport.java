@@ -0,0 +1,40 @@
+package com.codingame.gameengine.core;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Exchanges commands as text, each one being a <code>[[COMMAND] lineCount]</code> header followed by its lines.
+ */
+class TextCommandTransport implements CommandTransport {
+    private final Scanner s;
+    private final PrintStream out;
+
+    TextCommandTransport(InputStream is, PrintStream out) {
+        this.s = new Scanner(is);
+        this.out = out;
+    }
+
+    @Override
+    public InputCommand receive() {
+        InputCommand header = InputCommand.parse(s.nextLine());
+        List<String> lines = new ArrayList<>(header.lineCount);
+        for (int i = 0; i < header.lineCount; i++) {
+            lines.add(s.nextLine());
+        }
+        return new InputCommand(header.cmd, lines);
+    }
+
+    @Override
+    public void send(OutputData data) {
+        out.println(data);
+    }
+
+    @Override
+    public void close() {
+        s.close();
+    }
+}
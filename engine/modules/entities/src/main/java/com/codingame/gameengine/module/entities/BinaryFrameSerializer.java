@@ -0,0 +1,192 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.List;
+import java.util.Map.Entry;
+
+import com.google.inject.Singleton;
+
+/**
+ * Serializes frames in a compact binary format, sent in base64 after a <code>#</code>.
+ * <p>
+ * A frame is a sequence of sections, each starting with the byte of its command letter:
+ * <ul>
+ * <li><code>L</code>: the sprite sheets to load. Their count, then for each its name and image as strings followed by its width, height, row,
+ * column, image count and images per row as signed varints.</li>
+ * <li><code>C</code>: the entities to create. Their count, then the ordinal of the <code>Entity.Type</code> of each as a byte.</li>
+ * <li><code>U</code>: the updates of the entities. The count of instants, then for each its time in millionths and its count of entities. For
+ * each entity, its id and its count of properties, then for each property a header byte and its value. The header holds the ordinal of the
+ * <code>Property</code>, <code>0x40</code> for a raw double and <code>0x80</code> if a byte with the ordinal of the <code>Curve</code>
+ * follows.</li>
+ * <li><code>W</code>: the world commits. Their count, then their times in millionths.</li>
+ * <li><code>D</code>: the entities to destroy. Their count, then their ids.</li>
+ * </ul>
+ * Counts and times are varints, strings are their length in bytes followed by their UTF-8 bytes. Ids are signed varints of the difference with
+ * the previous id of the section, ints are signed varints of the difference with the previous value of the same property in the frame. Doubles
+ * are signed varints of their value in millionths, or 8 bytes when that does not fit. Angles are signed varints of degrees and booleans a
+ * byte.
+ * </p>
+ */
+@Singleton
+class BinaryFrameSerializer {
+    static final char FRAME_PREFIX = '#';
+
+    private static final int RAW_DOUBLE = 0x40;
+    private static final int WITH_CURVE = 0x80;
+    private static final double PRECISION = 1e6;
+    // Beyond 2^53 millionths, the value would no longer be exact
+    private static final double MAX_SCALED = 1L << 53;
+
+    private final ByteFrameWriter writer = new ByteFrameWriter();
+    private final long[] lastInts = new long[Property.VALUES.length];
+    private final StringBuilder frameBuilder = new StringBuilder();
+
+    /**
+     * Serializes all the commands of a frame.
+     * 
+     * @return the serialized frame, empty if there is nothing to send.
+     */
+    String serializeFrame(
+        List<SpriteSheetLoader> spriteSheets, List<Entity<?>> entities, List<WorldState> diffs, List<String> worldCommits,
+        List<Entity<?>> destroyedEntities
+    ) {
+        writer.reset();
+        writeLoadSpriteSheets(spriteSheets);
+        writeCreateEntities(entities);
+        writeWorldDiff(diffs);
+        writeWorldCommits(worldCommits);
+        writeDestroyEntities(destroyedEntities);
+        if (writer.size() == 0) {
+            return "";
+        }
+        frameBuilder.setLength(0);
+        return frameBuilder.append(FRAME_PREFIX).append(writer.toBase64()).toString();
+    }
+
+    private static long toMillionths(String frameTime) {
+        return (long) Math.rint(Double.parseDouble(frameTime) * PRECISION);
+    }
+
+    private void writeLoadSpriteSheets(List<SpriteSheetLoader> spriteSheets) {
+        if (spriteSheets.isEmpty()) {
+            return;
+        }
+        writer.writeByte('L');
+        writer.writeVarint(spriteSheets.size());
+        for (SpriteSheetLoader spriteSheet : spriteSheets) {
+            writer.writeString(spriteSheet.getName());
+            writer.writeString(spriteSheet.getSourceImage());
+            writer.writeSignedVarint(spriteSheet.getWidth());
+            writer.writeSignedVarint(spriteSheet.getHeight());
+            writer.writeSignedVarint(spriteSheet.getOrigRow());
+            writer.writeSignedVarint(spriteSheet.getOrigCol());
+            writer.writeSignedVarint(spriteSheet.getImageCount());
+            writer.writeSignedVarint(spriteSheet.getImagesPerRow());
+        }
+    }
+
+    private void writeCreateEntities(List<Entity<?>> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        writer.writeByte('C');
+        writer.writeVarint(entities.size());
+        for (Entity<?> entity : entities) {
+            writer.writeByte(entity.getType().ordinal());
+        }
+    }
+
+    private void writeWorldDiff(List<WorldState> diffs) {
+        int instantCount = 0;
+        for (WorldState worldDiff : diffs) {
+            if (!worldDiff.getEntityStateMap().isEmpty()) {
+                instantCount++;
+            }
+        }
+        if (instantCount == 0) {
+            return;
+        }
+        writer.writeByte('U');
+        writer.writeVarint(instantCount);
+        int lastId = 0;
+        for (int i = 0; i < Property.VALUES.length; i++) {
+            lastInts[i] = 0;
+        }
+        for (WorldState worldDiff : diffs) {
+            if (worldDiff.getEntityStateMap().isEmpty()) {
+                continue;
+            }
+            writer.writeVarint(toMillionths(worldDiff.getFrameTime()));
+            writer.writeVarint(worldDiff.getEntityStateMap().size());
+            for (Entry<Entity<?>, EntityState> entry : worldDiff.getEntityStateMap().entrySet()) {
+                int id = entry.getKey().getId();
+                writer.writeSignedVarint(id - lastId);
+                lastId = id;
+                writeDiff(entry.getValue());
+            }
+        }
+    }
+
+    private void writeDiff(EntityState diff) {
+        writer.writeVarint(Long.bitCount(diff.getMask()));
+        for (long bits = diff.getMask(); bits != 0; bits &= bits - 1) {
+            Property property = Property.VALUES[Long.numberOfTrailingZeros(bits)];
+            double value = property.getKind() == Property.Kind.STRING ? 0 : diff.getValue(property);
+            double scaled = value * PRECISION;
+            boolean rawDouble = property.getKind() == Property.Kind.DOUBLE && !(Math.abs(scaled) < MAX_SCALED);
+
+            Curve curve = diff.getCurve(property);
+            boolean withCurve = !curve.equals(Curve.DEFAULT);
+            writer.writeByte(property.ordinal() | (rawDouble ? RAW_DOUBLE : 0) | (withCurve ? WITH_CURVE : 0));
+            if (withCurve) {
+                writer.writeByte(curve.ordinal());
+            }
+
+            switch (property.getKind()) {
+            case ANGLE:
+                writer.writeSignedVarint((int) Math.toDegrees(value));
+                break;
+            case DOUBLE:
+                if (rawDouble) {
+                    writer.writeDouble(value);
+                } else {
+                    writer.writeSignedVarint((long) Math.rint(scaled));
+                }
+                break;
+            case BOOLEAN:
+                writer.writeByte(value != 0 ? 1 : 0);
+                break;
+            case INT:
+                int intValue = (int) value;
+                writer.writeSignedVarint(intValue - lastInts[property.ordinal()]);
+                lastInts[property.ordinal()] = intValue;
+                break;
+            default:
+                writer.writeString(diff.getString(property));
+            }
+        }
+    }
+
+    private void writeWorldCommits(List<String> worldCommits) {
+        if (worldCommits.isEmpty()) {
+            return;
+        }
+        writer.writeByte('W');
+        writer.writeVarint(worldCommits.size());
+        for (String worldCommit : worldCommits) {
+            writer.writeVarint(toMillionths(worldCommit));
+        }
+    }
+
+    private void writeDestroyEntities(List<Entity<?>> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+        writer.writeByte('D');
+        writer.writeVarint(entities.size());
+        int lastId = 0;
+        for (Entity<?> entity : entities) {
+            writer.writeSignedVarint(entity.getId() - lastId);
+            lastId = entity.getId();
+        }
+    }
+}
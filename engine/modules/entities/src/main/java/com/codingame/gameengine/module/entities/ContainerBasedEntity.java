@@ -29,29 +29,38 @@ public abstract class ContainerBasedEntity<T extends Entity<?>> extends Entity<T
         if (entity.parent == this) {
             entity.parent = null;
             entities.remove(entity);
-            set("children", asString(entities), null);
+            set(Property.CHILDREN, asString(entities), null);
         }
     }
 
     /**
      * Adds the given <code>Entity</code> instances to this <code>ContainerBasedEntity</code>.
      * <p>
-     * The entities will be displayed within a container controlled by this <code>ContainerBasedEntity</code>.
+     * The entities will be displayed within a container controlled by this <code>ContainerBasedEntity</code>. An entity which is already in
+     * another <code>ContainerBasedEntity</code> is moved out of it, and adding an entity which is already in this one has no effect.
      * 
      * @param entities
      *            the <code>Entity</code> instances to be added to this ContainerBasedEntity.
      * @exception IllegalArgumentException
-     *                if at least one given <code>Entity</code> is already in a <code>ContainerBasedEntity</code>.
+     *                if at least one given <code>Entity</code> is this <code>ContainerBasedEntity</code>.
      */
     public void add(Entity<?>... entities) {
         Stream.of(entities).forEach(entity -> {
-            if (entity.parent != null) {
-                throw new IllegalArgumentException();
+            if (entity == this) {
+                throw new IllegalArgumentException("Entity " + getId() + " cannot be added to itself");
             }
+            if (entity.parent != null && entity.parent != this) {
+                entity.parent.remove(entity);
+            }
+            entity.parent = this;
             this.entities.add(entity);
         });
 
-        set("children", asString(this.entities), null);
+        set(Property.CHILDREN, asString(this.entities), null);
+    }
+
+    Set<Entity<?>> getEntities() {
+        return entities;
     }
 
     private String asString(Set<Entity<?>> entities) {
@@ -1,7 +1,5 @@
 package com.codingame.gameengine.module.entities;
 
-import java.util.Optional;
-
 /**
  * A graphical entity, displayed on screen in the game's replay.
  * <p>
@@ -12,8 +10,12 @@ import java.util.Optional;
  *            a subclass inheriting Entity, used in order to return <b>this</b> as a T instead of an Entity.
  */
 public abstract class Entity<T extends Entity<?>> {
-    final int id;
+    int id;
     EntityState state;
+    GraphicEntityModule module;
+    boolean dirty;
+    boolean destroyed;
+    boolean released;
 
     private int x, y, zIndex;
     private double scaleX = 1, scaleY = 1;
@@ -27,7 +29,6 @@ public abstract class Entity<T extends Entity<?>> {
     }
 
     Entity() {
-        id = ++GraphicEntityModule.ENTITY_COUNT;
         state = new EntityState();
         
         // World commits made before the creation of an entity should not affect that entity.
@@ -44,6 +45,8 @@ public abstract class Entity<T extends Entity<?>> {
 
     /**
      * Returns a unique identifier for this <code>Entity</code>.
+     * <p>
+     * Identifiers are given by the <code>GraphicEntityModule</code> of the game, in order of creation starting from 1.
      * 
      * @return A unique identifier.
      */
@@ -51,12 +54,33 @@ public abstract class Entity<T extends Entity<?>> {
         return id;
     }
 
-    protected void set(String key, Object value, Curve curve) {
-        state.put(key, value, Optional.ofNullable(curve).orElse(Curve.DEFAULT));
+    void set(Property property, double value, Curve curve) {
+        state.put(property, value, curve == null ? Curve.DEFAULT : curve);
+        markDirty();
+    }
+
+    void set(Property property, double value) {
+        set(property, value, null);
+    }
+
+    void set(Property property, boolean value, Curve curve) {
+        set(property, value ? 1 : 0, curve);
     }
 
-    protected void set(String key, Object value) {
-        set(key, value, null);
+    void set(Property property, boolean value) {
+        set(property, value, null);
+    }
+
+    void set(Property property, String value, Curve curve) {
+        state.put(property, value, curve == null ? Curve.DEFAULT : curve);
+        markDirty();
+    }
+
+    private void markDirty() {
+        // Entities are marked by their module once created, and no longer once destroyed
+        if (!dirty && module != null && !destroyed) {
+            module.markDirty(this);
+        }
     }
 
     abstract Type getType();
@@ -83,7 +107,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setX(int x, Curve curve) {
         this.x = x;
-        set("x", x, curve);
+        set(Property.X, x, curve);
         return self();
     }
 
@@ -109,7 +133,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setY(int y, Curve curve) {
         this.y = y;
-        set("y", y, curve);
+        set(Property.Y, y, curve);
         return self();
     }
 
@@ -126,7 +150,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setZIndex(int zIndex) {
         this.zIndex = zIndex;
-        set("zIndex", zIndex);
+        set(Property.Z_INDEX, zIndex);
         return self();
     }
 
@@ -152,7 +176,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setScaleX(double scaleX, Curve curve) {
         this.scaleX = scaleX;
-        set("scaleX", scaleX, curve);
+        set(Property.SCALE_X, scaleX, curve);
         return self();
     }
 
@@ -178,7 +202,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setScaleY(double scaleY, Curve curve) {
         this.scaleY = scaleY;
-        set("scaleY", scaleY, curve);
+        set(Property.SCALE_Y, scaleY, curve);
         return self();
     }
 
@@ -215,7 +239,7 @@ public abstract class Entity<T extends Entity<?>> {
         requireValidAlpha(alpha);
 
         this.alpha = alpha;
-        set("alpha", alpha, curve);
+        set(Property.ALPHA, alpha, curve);
         return self();
     }
 
@@ -267,7 +291,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setRotation(double rotation, Curve curve) {
         this.rotation = rotation;
-        set("rotation", rotation, curve);
+        set(Property.ROTATION, rotation, curve);
         return self();
     }
 
@@ -282,7 +306,7 @@ public abstract class Entity<T extends Entity<?>> {
      */
     public T setVisible(boolean visible) {
         this.visible = visible;
-        set("visible", visible);
+        set(Property.VISIBLE, visible);
         return self();
     }
 
@@ -399,7 +423,7 @@ public abstract class Entity<T extends Entity<?>> {
 
     private T saveMask(Mask entity) {
         mask = entity;
-        set("mask", entity == null ? -1 : entity.getId());
+        set(Property.MASK, entity == null ? -1 : entity.getId());
         return self();
     }
 
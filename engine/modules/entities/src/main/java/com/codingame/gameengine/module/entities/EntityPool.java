@@ -0,0 +1,81 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * A pool of entities of the same kind, for games which often need new entities for a short time, such as projectiles or particles.
+ * <p>
+ * Released entities are hidden and kept to be acquired again, instead of creating new entities whose graphical counterparts would pile up in
+ * the viewer.
+ * </p>
+ * 
+ * @param <T>
+ *            the type of the pooled entities.
+ * @see GraphicEntityModule#createEntityPool(Supplier)
+ */
+public final class EntityPool<T extends Entity<?>> {
+    private final GraphicEntityModule module;
+    private final Supplier<T> factory;
+    private final Deque<T> releasedEntities = new ArrayDeque<>();
+
+    EntityPool(GraphicEntityModule module, Supplier<T> factory) {
+        this.module = module;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns a released entity, made visible again, or a new entity if there is none.
+     * <p>
+     * A reused entity keeps all the other properties it had when it was released.
+     * </p>
+     * 
+     * @return the entity.
+     * @exception IllegalArgumentException
+     *                if the factory of this pool did not create an entity of its module.
+     */
+    public T acquire() {
+        T entity = releasedEntities.poll();
+        // Released entities may have been destroyed since
+        while (entity != null && entity.destroyed) {
+            entity = releasedEntities.poll();
+        }
+        if (entity == null) {
+            entity = factory.get();
+            if (entity.module != module) {
+                throw new IllegalArgumentException("Pooled entities must be created by the module of the pool");
+            }
+        } else {
+            entity.released = false;
+            entity.setVisible(true);
+        }
+        return entity;
+    }
+
+    /**
+     * Hides the given entity and keeps it to be returned by a later <code>acquire</code>. A released entity must not be used until then.
+     * 
+     * @param entity
+     *            the entity to release.
+     * @exception IllegalArgumentException
+     *                if the entity is destroyed, already released, or not from the module of this pool.
+     */
+    public void release(T entity) {
+        if (entity.module != module || entity.destroyed || entity.released) {
+            throw new IllegalArgumentException("Entity " + entity.getId() + " cannot be released in this pool");
+        }
+        entity.released = true;
+        entity.setVisible(false);
+        releasedEntities.push(entity);
+    }
+
+    /**
+     * Returns the number of released entities waiting to be acquired.
+     * 
+     * @return the number of released entities.
+     */
+    public int getReleasedCount() {
+        return releasedEntities.size();
+    }
+}
@@ -1,72 +1,118 @@
 package com.codingame.gameengine.module.entities;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Set;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.function.BiConsumer;
 
+/**
+ * The values of the properties of an entity which were set, along with their curves.
+ * <p>
+ * Values are indexed by <code>Property</code> ordinal. Numbers and booleans are stored as doubles, strings separately, and the properties which
+ * are set are flagged in a bitmask.
+ */
 class EntityState {
-    Map<String, Param> map;
+    private static final int PROPERTY_COUNT = Property.VALUES.length;
+    private static final Curve[] CURVES = Curve.values();
+
+    private long mask;
+    private final double[] values;
+    private final byte[] curves;
+    private String[] strings;
+
+    EntityState() {
+        values = new double[PROPERTY_COUNT];
+        curves = new byte[PROPERTY_COUNT];
+    }
 
     public EntityState(EntityState other) {
-        map = new HashMap<>(other.map);
+        mask = other.mask;
+        values = other.values.clone();
+        curves = other.curves.clone();
+        strings = other.strings == null ? null : other.strings.clone();
     }
 
-    static class Param {
-        Object value;
-        Curve curve;
+    void put(Property property, double value, Curve curve) {
+        int index = property.ordinal();
+        values[index] = value;
+        curves[index] = (byte) curve.ordinal();
+        mask |= property.mask();
+    }
 
-        public Param(Object value, Curve curve) {
-            Objects.requireNonNull(curve);
+    void put(Property property, String value, Curve curve) {
+        int index = property.ordinal();
+        if (strings == null) {
+            strings = new String[PROPERTY_COUNT];
+        }
+        strings[index] = value;
+        curves[index] = (byte) curve.ordinal();
+        mask |= property.mask();
+    }
 
-            this.value = value;
-            this.curve = curve;
+    /**
+     * Copies all the properties set in <code>other</code> into this state.
+     */
+    void putAll(EntityState other) {
+        for (long bits = other.mask; bits != 0; bits &= bits - 1) {
+            copy(other, Long.numberOfTrailingZeros(bits));
         }
+    }
 
-        public boolean equals(Param other) {
-            return other != null && other.value.equals(value);
+    private void copy(EntityState other, int index) {
+        values[index] = other.values[index];
+        curves[index] = other.curves[index];
+        if (Property.VALUES[index].getKind() == Property.Kind.STRING) {
+            if (strings == null) {
+                strings = new String[PROPERTY_COUNT];
+            }
+            strings[index] = other.strings[index];
         }
+        mask |= 1L << index;
     }
 
-    EntityState() {
-        map = new HashMap<>();
+    /**
+     * Unsets all the properties, so that this state may be reused.
+     */
+    void clear() {
+        mask = 0;
     }
 
-    public void forEach(BiConsumer<? super String, ? super Param> action) {
-        map.forEach(action);
+    long getMask() {
+        return mask;
     }
 
-    public Object put(String key, Param value) {
-        return map.put(key, value);
+    double getValue(Property property) {
+        return values[property.ordinal()];
     }
 
-    public Param get(String key) {
-        return map.get(key);
+    String getString(Property property) {
+        return strings[property.ordinal()];
     }
 
-    public boolean isEmpty() {
-        return map.isEmpty();
+    Curve getCurve(Property property) {
+        return CURVES[curves[property.ordinal()]];
     }
 
-    public Set<Entry<String, Param>> entrySet() {
-        return map.entrySet();
+    public boolean isEmpty() {
+        return mask == 0;
     }
 
-    public void put(String key, Object value, Curve curve) {
-        map.put(key, new Param(value, curve));
+    private boolean sameValue(EntityState other, int index) {
+        if ((other.mask & (1L << index)) == 0) {
+            return false;
+        }
+        if (Property.VALUES[index].getKind() == Property.Kind.STRING) {
+            return Objects.equals(strings[index], other.strings[index]);
+        }
+        return Double.doubleToLongBits(values[index]) == Double.doubleToLongBits(other.values[index]);
     }
 
     EntityState diffFromNonNullOtherState(EntityState prevState) {
         EntityState diff = new EntityState();
-        forEach((key, value) -> {
-            Param prevValue = prevState.get(key);
-            if (!value.equals(prevValue)) {
-                diff.put(key, value);
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            int index = Long.numberOfTrailingZeros(bits);
+            if (!sameValue(prevState, index)) {
+                diff.copy(this, index);
             }
-        });
+        }
         return diff;
     }
 
@@ -77,4 +123,4 @@ class EntityState {
             return new EntityState(this);
         }
     }
-}
\ No newline at end of file
+}
@@ -1,12 +1,8 @@
 package com.codingame.gameengine.module.entities;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import com.codingame.gameengine.core.AbstractPlayer;
@@ -30,18 +26,23 @@ public class GraphicEntityModule implements Module {
     //TODO: masks
     //TODO: extra properties for Texts (text wrapping, alignement, ...)
 
-    static int ENTITY_COUNT = 0;
-
     private List<SpriteSheetLoader> newSpriteSheets;
     private List<Entity<?>> newEntities;
     private List<Entity<?>> entities;
-    private Map<String, WorldState> worldStates;
+    private List<Entity<?>> dirtyEntities;
+    private List<Entity<?>> destroyedEntities;
+    private int entityCount;
+    private Timeline timeline;
+    private List<WorldState> frameDiffs;
+    private List<String> frameWorldCommits;
     private World world;
     private boolean lockWorld;
     private WorldState currentWorldState;
 
     private GameManager<AbstractPlayer> gameManager;
     @Inject private Serializer gameSerializer;
+    @Inject private BinaryFrameSerializer binarySerializer;
+    private boolean binaryFrames;
     @Inject private Provider<SpriteSheetLoader> spriteSheetProvider;
 
     @Inject
@@ -49,10 +50,14 @@ public class GraphicEntityModule implements Module {
         this.gameManager = gameManager;
         world = new World();
         entities = new ArrayList<>();
+        dirtyEntities = new ArrayList<>();
+        destroyedEntities = new ArrayList<>();
         newEntities = new ArrayList<>();
         newSpriteSheets = new ArrayList<>();
         lockWorld = false;
-        worldStates = new HashMap<>();
+        timeline = new Timeline();
+        frameDiffs = new ArrayList<>();
+        frameWorldCommits = new ArrayList<>();
         currentWorldState = new WorldState("0");
 
         gameManager.registerModule(this);
@@ -117,7 +122,23 @@ public class GraphicEntityModule implements Module {
      * 
      */
     public void commitWorldState(double t) {
-        commitState(t, true, entities.toArray(new Entity[entities.size()]));
+        requireValidFrameInstant(t);
+        if (entities.isEmpty()) {
+            throw new IllegalArgumentException("Must not be an empty array");
+        }
+
+        if (gameManager.isHeadless()) {
+            return;
+        }
+
+        WorldState state = timeline.getOrCreate(t);
+        state.markAsWorldCommit();
+        // Entities left untouched since the last world commit have nothing to flush
+        for (Entity<?> entity : dirtyEntities) {
+            state.flushEntityState(entity);
+            entity.dirty = false;
+        }
+        dirtyEntities.clear();
     }
 
     /**
@@ -135,24 +156,18 @@ public class GraphicEntityModule implements Module {
      * 
      */
     public void commitEntityState(double t, Entity<?>... entities) {
-        commitState(t, false, entities);
+        commitState(t, entities);
     }
 
-    private void commitState(double t, boolean commitAll, Entity<?>... entities) {
+    private void commitState(double t, Entity<?>... entities) {
         requireValidFrameInstant(t);
         requireNonEmpty(entities);
 
-        String actualT = Serializer.formatFrameTime(t);
-
-        WorldState state = worldStates.get(actualT);
-        if (state == null) {
-            state = new WorldState(actualT);
-            worldStates.put(actualT, state);
+        if (gameManager.isHeadless()) {
+            return;
         }
 
-        if (commitAll) {
-            state.markAsWorldCommit();
-        }
+        WorldState state = timeline.getOrCreate(t);
         flushAllEntityStates(entities, state);
 
     }
@@ -174,50 +189,77 @@ public class GraphicEntityModule implements Module {
     }
 
     private void sendFrameData() {
+        if (gameManager.isHeadless()) {
+            newSpriteSheets.clear();
+            newEntities.clear();
+            // Nothing is ever committed, changes are simply dropped
+            for (Entity<?> entity : dirtyEntities) {
+                entity.state.clear();
+                entity.dirty = false;
+            }
+            dirtyEntities.clear();
+            removeDestroyedEntities();
+            return;
+        }
 
-        autocommit();
-
-        Optional<String> load = gameSerializer.serializeLoadSpriteSheets(newSpriteSheets);
-        newSpriteSheets.clear();
-
-        Optional<String> create = gameSerializer.serializeCreateEntities(newEntities);
-        newEntities.clear();
-
-        List<WorldState> orderedStates = worldStates.entrySet().stream()
-            .sorted((e1, e2) -> e1.getValue().getFrameTime().compareTo(e2.getValue().getFrameTime()))
-            .map(Entry::getValue)
-            .collect(Collectors.toList());
+        gameManager.setViewData("entitymodule", serializeFrameData());
+    }
 
-        List<String> worldCommitsBuilder = new ArrayList<>();
-        List<WorldState> updateBuilder = new ArrayList<>();
+    /**
+     * Commits the world at 1 and serializes all the changes of the frame.
+     */
+    String serializeFrameData() {
+        autocommit();
 
-        for (WorldState nextWorldState : orderedStates) {
+        for (int i = 0; i < timeline.size(); i++) {
+            WorldState nextWorldState = timeline.get(i);
             if (nextWorldState.isWorldCommit()) {
-                worldCommitsBuilder.add(nextWorldState.getFrameTime());
+                frameWorldCommits.add(nextWorldState.getFrameTime());
             }
             WorldState worldStateDiff = nextWorldState.diffFromOtherWorldState(currentWorldState);
-            updateBuilder.add(worldStateDiff);
+            frameDiffs.add(worldStateDiff);
             currentWorldState.updateAllEntities(nextWorldState);
         }
 
-        Optional<String> worldCommits = gameSerializer.serializeWorldCommits(worldCommitsBuilder);
+        String frame;
+        if (binaryFrames) {
+            frame = binarySerializer.serializeFrame(newSpriteSheets, newEntities, frameDiffs, frameWorldCommits, destroyedEntities);
+        } else {
+            frame = gameSerializer.serializeFrame(newSpriteSheets, newEntities, frameDiffs, frameWorldCommits, destroyedEntities);
+        }
+        newSpriteSheets.clear();
+        newEntities.clear();
+        frameDiffs.clear();
+        frameWorldCommits.clear();
+        removeDestroyedEntities();
 
-        Optional<String> update = gameSerializer.serializeWorldDiff(updateBuilder);
+        timeline.clear();
+        return frame;
+    }
 
-        worldStates.clear();
-        gameManager.setViewData(
-            "entitymodule",
-            Stream.of(load, create, update, worldCommits)
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.joining("\n"))
-        );
+    private void removeDestroyedEntities() {
+        if (destroyedEntities.isEmpty()) {
+            return;
+        }
+        entities.removeIf(entity -> entity.destroyed);
+        dirtyEntities.removeIf(entity -> entity.destroyed);
+        for (Entity<?> entity : destroyedEntities) {
+            currentWorldState.getEntityStateMap().remove(entity);
+        }
+        destroyedEntities.clear();
     }
 
     private void autocommit() {
-        WorldState state = worldStates.computeIfAbsent("1", (key) -> new WorldState("1"));
+        WorldState state = timeline.getOrCreate(1);
         state.markAsWorldCommit();
-        state.flushMissingEntities(entities);
+        // Entities already committed at 1 keep their later changes for the next frame
+        dirtyEntities.removeIf(entity -> {
+            if (state.flushMissingEntity(entity)) {
+                entity.dirty = false;
+                return true;
+            }
+            return false;
+        });
     }
 
     /**
@@ -326,10 +368,87 @@ public class GraphicEntityModule implements Module {
         return c;
     }
 
+    /**
+     * Sends the frames to the viewer in a compact binary format instead of text.
+     * <p>
+     * Binary frames are smaller and faster to serialize, which helps keeping the replays of complex games within the size limit of the view. They
+     * are decoded by the viewer of this module, and may be switched on or off between two frames.
+     * </p>
+     * 
+     * @param binaryFrames
+     *            true to send binary frames.
+     */
+    public void setBinaryFrames(boolean binaryFrames) {
+        this.binaryFrames = binaryFrames;
+    }
+
+    /**
+     * Creates a pool of entities, which hides released entities and reuses them rather than creating new ones.
+     * <p>
+     * For instance, <code>graphicEntityModule.createEntityPool(graphicEntityModule::createSprite)</code> pools sprites.
+     * </p>
+     * 
+     * @param <T>
+     *            the type of the pooled entities.
+     * @param factory
+     *            creates the entities when the pool has none to reuse, with this module.
+     * @return the pool.
+     */
+    public <T extends Entity<?>> EntityPool<T> createEntityPool(Supplier<T> factory) {
+        return new EntityPool<>(this, factory);
+    }
+
+    /**
+     * Destroys the given entities, their graphical counterparts will be removed once the frame currently being computed is over.
+     * <p>
+     * The entities within a destroyed <code>Group</code> or <code>BufferedGroup</code> are destroyed as well, and a destroyed entity is removed
+     * from the group it is in. Destroyed entities are no longer committed and must not be used anymore. Their ids are never given to another
+     * entity, whether the game is headless or not; use an <code>EntityPool</code> to reuse entities.
+     * </p>
+     * 
+     * @param entities
+     *            The entity objects to destroy.
+     * @exception IllegalArgumentException
+     *                if an entity was not created by this module.
+     */
+    public void destroyEntities(Entity<?>... entities) {
+        for (Entity<?> entity : entities) {
+            if (entity.module != this) {
+                throw new IllegalArgumentException("Entity " + entity.getId() + " was not created by this module");
+            }
+            destroyEntity(entity);
+        }
+    }
+
+    private void destroyEntity(Entity<?> entity) {
+        if (entity.destroyed) {
+            return;
+        }
+        entity.destroyed = true;
+        destroyedEntities.add(entity);
+        // The children of a destroyed container are left in it, as the container goes away with them
+        if (entity.parent != null && !entity.parent.destroyed) {
+            entity.parent.remove(entity);
+        }
+        if (entity instanceof ContainerBasedEntity) {
+            for (Entity<?> child : ((ContainerBasedEntity<?>) entity).getEntities()) {
+                destroyEntity(child);
+            }
+        }
+    }
+
     private void newEntity(Entity<?> e) {
         lockWorld = true;
+        e.id = ++entityCount;
+        e.module = this;
         entities.add(e);
         newEntities.add(e);
+        markDirty(e);
+    }
+
+    void markDirty(Entity<?> entity) {
+        entity.dirty = true;
+        dirtyEntities.add(entity);
     }
 
     private void sendGlobalData() {
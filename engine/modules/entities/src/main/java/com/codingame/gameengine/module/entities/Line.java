@@ -37,7 +37,7 @@ public class Line extends Shape<Line> {
      */
     public Line setX2(int x2, Curve curve) {
         this.x2 = x2;
-        set("x2", x2, curve);
+        set(Property.X2, x2, curve);
         return this;
     }
 
@@ -76,7 +76,7 @@ public class Line extends Shape<Line> {
      */
     public Line setY2(int y2, Curve curve) {
         this.y2 = y2;
-        set("y2", y2, curve);
+        set(Property.Y2, y2, curve);
         return this;
     }
 
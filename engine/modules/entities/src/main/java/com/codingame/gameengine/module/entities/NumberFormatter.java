@@ -0,0 +1,69 @@
+package com.codingame.gameengine.module.entities;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Formats the numbers of the view the same way in every thread, without any state shared between threads: several games may be serialized
+ * concurrently in the same JVM.
+ */
+final class NumberFormatter {
+    private static final ThreadLocal<DecimalFormat> DECIMAL_FORMAT = ThreadLocal.withInitial(() -> {
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.ROOT);
+        symbols.setDecimalSeparator('.');
+        DecimalFormat decimalFormat = new DecimalFormat("0.######");
+        decimalFormat.setGroupingUsed(false);
+        decimalFormat.setDecimalFormatSymbols(symbols);
+        return decimalFormat;
+    });
+
+    private NumberFormatter() {
+    }
+
+    /**
+     * Formats <code>value</code> as with the <code>0.######</code> pattern, rounding half to even.
+     */
+    static String formatDecimal(double value) {
+        StringBuilder sb = new StringBuilder(16);
+        appendDecimal(sb, value);
+        return sb.toString();
+    }
+
+    /**
+     * Appends <code>value</code> formatted as with the <code>0.######</code> pattern, rounding half to even.
+     * <p>
+     * Values which are too big, or too close to a tie for the rounding of their exact binary value to be trusted, are left to a
+     * <code>DecimalFormat</code> owned by the current thread.
+     */
+    static void appendDecimal(StringBuilder sb, double value) {
+        double abs = Math.abs(value);
+        if (abs < 1e7) {
+            // abs * 1e6 is off by less than 0.003 from the exact scaled value, far from the 0.01 margin around ties
+            double scaled = abs * 1e6;
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (Math.abs(fraction - 0.5) > 0.01) {
+                long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+                if (value < 0 || (value == 0 && 1 / value < 0)) {
+                    // Like DecimalFormat, negative values rounded to 0 are written -0
+                    sb.append('-');
+                }
+                sb.append(units / 1_000_000);
+                int decimals = (int) (units % 1_000_000);
+                if (decimals != 0) {
+                    sb.append('.');
+                    for (int leading = 100_000; leading > decimals; leading /= 10) {
+                        sb.append('0');
+                    }
+                    while (decimals % 10 == 0) {
+                        decimals /= 10;
+                    }
+                    sb.append(decimals);
+                }
+                return;
+            }
+        }
+        sb.append(DECIMAL_FORMAT.get().format(value));
+    }
+}
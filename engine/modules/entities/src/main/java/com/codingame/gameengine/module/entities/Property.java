@@ -0,0 +1,83 @@
+package com.codingame.gameengine.module.entities;
+
+/**
+ * The properties of the entities which are sent to the viewer.
+ */
+enum Property {
+    X("x", Kind.INT),
+    Y("y", Kind.INT),
+    Z_INDEX("zIndex", Kind.INT),
+    SCALE_X("scaleX", Kind.DOUBLE),
+    SCALE_Y("scaleY", Kind.DOUBLE),
+    ALPHA("alpha", Kind.DOUBLE),
+    ROTATION("rotation", Kind.ANGLE),
+    VISIBLE("visible", Kind.BOOLEAN),
+    MASK("mask", Kind.INT),
+    RADIUS("radius", Kind.INT),
+    X2("x2", Kind.INT),
+    Y2("y2", Kind.INT),
+    WIDTH("width", Kind.INT),
+    HEIGHT("height", Kind.INT),
+    FILL_COLOR("fillColor", Kind.INT),
+    FILL_ALPHA("fillAlpha", Kind.DOUBLE),
+    LINE_COLOR("lineColor", Kind.INT),
+    LINE_WIDTH("lineWidth", Kind.INT),
+    LINE_ALPHA("lineAlpha", Kind.DOUBLE),
+    CHILDREN("children", Kind.STRING),
+    IMAGE("image", Kind.STRING),
+    BASE_WIDTH("baseWidth", Kind.INT),
+    BASE_HEIGHT("baseHeight", Kind.INT),
+    IMAGES("images", Kind.STRING),
+    LOOP("loop", Kind.BOOLEAN),
+    PLAYING("playing", Kind.BOOLEAN),
+    DURATION("duration", Kind.INT),
+    RESTARTED("restarted", Kind.INT),
+    TEXT("text", Kind.STRING),
+    FONT_FAMILY("fontFamily", Kind.STRING),
+    FONT_SIZE("fontSize", Kind.INT),
+    STROKE_COLOR("strokeColor", Kind.INT),
+    STROKE_THICKNESS("strokeThickness", Kind.DOUBLE),
+    ANCHOR_X("anchorX", Kind.DOUBLE),
+    ANCHOR_Y("anchorY", Kind.DOUBLE),
+    BLEND_MODE("blendMode", Kind.INT),
+    TINT("tint", Kind.INT);
+
+    /**
+     * How the value of a property is stored and serialized.
+     */
+    static enum Kind {
+        INT, DOUBLE, ANGLE, BOOLEAN, STRING
+    }
+
+    static final Property[] VALUES = values();
+
+    static {
+        // Properties are indexed in a long bitmask
+        if (VALUES.length > Long.SIZE) {
+            throw new IllegalStateException("Too many properties");
+        }
+    }
+
+    private final String propertyName;
+    private final Kind kind;
+
+    private Property(String propertyName, Kind kind) {
+        this.propertyName = propertyName;
+        this.kind = kind;
+    }
+
+    /**
+     * @return the name of the property in the view protocol, before minification.
+     */
+    String getName() {
+        return propertyName;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    long mask() {
+        return 1L << ordinal();
+    }
+}
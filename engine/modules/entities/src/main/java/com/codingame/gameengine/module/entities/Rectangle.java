@@ -36,7 +36,7 @@ public class Rectangle extends Shape<Rectangle> {
      */
     public Rectangle setWidth(int width, Curve curve) {
         this.width = width;
-        set("width", width, curve);
+        set(Property.WIDTH, width, curve);
         return this;
     }
 
@@ -73,7 +73,7 @@ public class Rectangle extends Shape<Rectangle> {
      */
     public Rectangle setHeight(int height, Curve curve) {
         this.height = height;
-        set("height", height, curve);
+        set(Property.HEIGHT, height, curve);
         return this;
     }
 
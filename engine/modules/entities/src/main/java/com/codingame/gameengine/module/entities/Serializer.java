@@ -1,15 +1,9 @@
 package com.codingame.gameengine.module.entities;
 
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Optional;
-import java.util.Set;
 import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import com.codingame.gameengine.module.entities.Entity.Type;
 import com.google.inject.Singleton;
@@ -19,14 +13,9 @@ class Serializer {
     public Map<String, String> commands, keys, separators;
     Map<Entity.Type, String> types;
     Map<Curve, String> curves;
-    private static DecimalFormat decimalFormat;
-    static {
-        DecimalFormatSymbols otherSymbols = new DecimalFormatSymbols();
-        otherSymbols.setDecimalSeparator('.');
-        decimalFormat = new DecimalFormat("0.######");
-        decimalFormat.setGroupingUsed(false);
-        decimalFormat.setDecimalFormatSymbols(otherSymbols);
-    }
+    private final String[] propertyKeys;
+    private final String[] curveCodes;
+    private final StringBuilder frameBuilder = new StringBuilder();
 
     Serializer() {
         keys = new HashMap<>();
@@ -70,6 +59,7 @@ class Serializer {
         commands.put("UPDATE", "U");
         commands.put("LOADSPRITESHEET", "L");
         commands.put("WORLDUPDATE", "W");
+        commands.put("DESTROY", "D");
 
         separators = new HashMap<>();
         separators.put("COMMAND", ";");
@@ -84,6 +74,16 @@ class Serializer {
         curves.put(Curve.EASE_IN_AND_OUT, "∫");
         curves.put(Curve.ELASTIC, "~");
 
+        propertyKeys = new String[Property.VALUES.length];
+        for (Property property : Property.VALUES) {
+            propertyKeys[property.ordinal()] = keys.getOrDefault(property.getName(), property.getName());
+        }
+
+        curveCodes = new String[Curve.values().length];
+        for (Curve curve : Curve.values()) {
+            curveCodes[curve.ordinal()] = curves.get(curve);
+        }
+
         types = new HashMap<>();
         types.put(Type.RECTANGLE, "R");
         types.put(Type.CIRCLE, "C");
@@ -123,154 +123,214 @@ class Serializer {
 
     }
 
-    /**
-     * Join multiple object into a space separated string
-     */
-    static private String join(Object... args) {
-        return Stream.of(args).map(String::valueOf).collect(Collectors.joining(" "));
-    }
-
-    static String formatFrameTime(double t) {
-        return decimalFormat.format(t);
-    }
-
     static String escape(String text) {
-        String escaped = text.replaceAll("\\'", "\\\\'");
-        if (escaped.contains(" ")) {
-            return "'" + escaped + "'";
-        }
-        return escaped;
+        StringBuilder sb = new StringBuilder(text.length() + 2);
+        appendEscaped(sb, text);
+        return sb.toString();
     }
 
-    private String serializeEntitiesStateDiff(Entity<?> entity, EntityState diff, String frameInstant) {
-        String meta = join(
-            entity.getId(),
-            frameInstant
-        );
-        if (diff.isEmpty()) {
-            return meta;
+    /**
+     * Appends <code>text</code> with its quotes escaped, surrounded by quotes if it contains a space.
+     */
+    static void appendEscaped(StringBuilder sb, String text) {
+        boolean quoted = text.indexOf(' ') >= 0;
+        if (quoted) {
+            sb.append('\'');
+        }
+        int start = 0;
+        for (int i = text.indexOf('\''); i >= 0; i = text.indexOf('\'', i + 1)) {
+            sb.append(text, start, i).append("\\'");
+            start = i + 1;
+        }
+        sb.append(text, start, text.length());
+        if (quoted) {
+            sb.append('\'');
         }
-        return join(
-            meta,
-            minifyDiff(diff)
-        );
     }
 
-    private String minifyParam(String key, EntityState.Param param) {
-        String result;
-
-        if (key.equals("rotation")) {
-            result = String.valueOf((int) Math.toDegrees((double) param.value));
-        } else if (param.value instanceof Double) {
-            result = decimalFormat.format(param.value);
-        } else if (param.value instanceof Boolean) {
-            result = (boolean) param.value ? "1" : "0";
-        } else {
-            result = escape(param.value.toString());
+    private void appendParam(StringBuilder sb, Property property, EntityState state) {
+        switch (property.getKind()) {
+        case ANGLE:
+            sb.append((int) Math.toDegrees(state.getValue(property)));
+            break;
+        case DOUBLE:
+            NumberFormatter.appendDecimal(sb, state.getValue(property));
+            break;
+        case BOOLEAN:
+            sb.append(state.getValue(property) != 0 ? '1' : '0');
+            break;
+        case INT:
+            sb.append((int) state.getValue(property));
+            break;
+        default:
+            appendEscaped(sb, state.getString(property));
         }
 
         // We don't send the default curve, it will be implied.
-        if (param.curve.equals(Curve.DEFAULT)) {
-            return result;
+        Curve curve = state.getCurve(property);
+        if (!curve.equals(Curve.DEFAULT)) {
+            sb.append(' ').append(curveCodes[curve.ordinal()]);
         }
-        return join(result, curves.get(param.curve));
     }
 
-    private String minifyKey(String key) {
-        return keys.getOrDefault(key, key);
-    }
-
-    private String minifyDiff(EntityState diff) {
-        return diff.entrySet().stream()
-            .map((entry) -> join(minifyKey(entry.getKey()), minifyParam(entry.getKey(), entry.getValue())))
-            .collect(Collectors.joining(separators.get("COMMAND_ARGUMENT")));
+    private void appendDiff(StringBuilder sb, EntityState diff) {
+        String argumentSeparator = separators.get("COMMAND_ARGUMENT");
+        boolean first = true;
+        for (long bits = diff.getMask(); bits != 0; bits &= bits - 1) {
+            Property property = Property.VALUES[Long.numberOfTrailingZeros(bits)];
+            if (!first) {
+                sb.append(argumentSeparator);
+            }
+            first = false;
+            sb.append(propertyKeys[property.ordinal()]).append(' ');
+            appendParam(sb, property, diff);
+        }
     }
 
-    private String serializeCreateEntity(Entity<?> e) {
-        return join(
-            types.get(e.getType())
-        );
+    private void appendEntitiesStateDiff(StringBuilder sb, Entity<?> entity, EntityState diff, String frameInstant) {
+        sb.append(entity.getId()).append(' ').append(frameInstant);
+        if (!diff.isEmpty()) {
+            sb.append(' ');
+            appendDiff(sb, diff);
+        }
     }
 
-    public Optional<String> serializeCreateEntities(List<Entity<?>> entities) {
+    /**
+     * Appends the command creating the given entities.
+     * 
+     * @return false if there was nothing to append.
+     */
+    boolean appendCreateEntities(StringBuilder sb, List<Entity<?>> entities) {
         if (entities.isEmpty()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(
-                commands.get("CREATE") + entities.stream()
-                    .map(e -> serializeCreateEntity(e))
-                    .collect(Collectors.joining(separators.get("COMMAND")))
-            );
+            return false;
+        }
+        sb.append(commands.get("CREATE"));
+        String commandSeparator = separators.get("COMMAND");
+        for (int i = 0; i < entities.size(); i++) {
+            if (i > 0) {
+                sb.append(commandSeparator);
+            }
+            sb.append(types.get(entities.get(i).getType()));
         }
+        return true;
     }
 
-    private String serializeLoadSpriteSheet(SpriteSheetLoader spriteSheet) {
-        return join(
-            spriteSheet.getName(), spriteSheet.getSourceImage(),
-            spriteSheet.getWidth(), spriteSheet.getHeight(), spriteSheet.getOrigRow(), spriteSheet.getOrigCol(), spriteSheet.getImageCount(),
-            spriteSheet.getImagesPerRow()
-        );
+    /**
+     * Appends the command destroying the given entities.
+     * 
+     * @return false if there was nothing to append.
+     */
+    boolean appendDestroyEntities(StringBuilder sb, List<Entity<?>> entities) {
+        if (entities.isEmpty()) {
+            return false;
+        }
+        sb.append(commands.get("DESTROY"));
+        String commandSeparator = separators.get("COMMAND");
+        for (int i = 0; i < entities.size(); i++) {
+            if (i > 0) {
+                sb.append(commandSeparator);
+            }
+            sb.append(entities.get(i).getId());
+        }
+        return true;
     }
 
-    public Optional<String> serializeLoadSpriteSheets(List<SpriteSheetLoader> spriteSheets) {
+    /**
+     * Appends the command loading the given sprite sheets.
+     * 
+     * @return false if there was nothing to append.
+     */
+    boolean appendLoadSpriteSheets(StringBuilder sb, List<SpriteSheetLoader> spriteSheets) {
         if (spriteSheets.isEmpty()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(
-                commands.get("LOADSPRITESHEET") + spriteSheets.stream()
-                    .map(e -> serializeLoadSpriteSheet(e))
-                    .collect(Collectors.joining(separators.get("COMMAND")))
-            );
+            return false;
         }
+        sb.append(commands.get("LOADSPRITESHEET"));
+        String commandSeparator = separators.get("COMMAND");
+        for (int i = 0; i < spriteSheets.size(); i++) {
+            SpriteSheetLoader spriteSheet = spriteSheets.get(i);
+            if (i > 0) {
+                sb.append(commandSeparator);
+            }
+            sb.append(spriteSheet.getName()).append(' ')
+                .append(spriteSheet.getSourceImage()).append(' ')
+                .append(spriteSheet.getWidth()).append(' ')
+                .append(spriteSheet.getHeight()).append(' ')
+                .append(spriteSheet.getOrigRow()).append(' ')
+                .append(spriteSheet.getOrigCol()).append(' ')
+                .append(spriteSheet.getImageCount()).append(' ')
+                .append(spriteSheet.getImagesPerRow());
+        }
+        return true;
     }
 
-    public Optional<String> serializeWorldCommits(List<String> worldCommits) {
+    /**
+     * Appends the command listing the instants of the world commits.
+     * 
+     * @return false if there was nothing to append.
+     */
+    boolean appendWorldCommits(StringBuilder sb, List<String> worldCommits) {
         if (worldCommits.isEmpty()) {
-            return Optional.empty();
-        } else {
-            return Optional.of(
-                commands.get("WORLDUPDATE") +
-                worldCommits.stream()
-                        .collect(Collectors.joining(separators.get("COMMAND_ARGUMENT")))
-            );
+            return false;
+        }
+        sb.append(commands.get("WORLDUPDATE"));
+        String argumentSeparator = separators.get("COMMAND_ARGUMENT");
+        for (int i = 0; i < worldCommits.size(); i++) {
+            if (i > 0) {
+                sb.append(argumentSeparator);
+            }
+            sb.append(worldCommits.get(i));
         }
+        return true;
     }
 
-    public Optional<String> serializeWorldDiff(List<WorldState> diffs) {
-        if (diffs.isEmpty()) {
-            return Optional.empty();
-        } else {
-            List<String> serialized = diffs.stream()
-                .map(worldDiff -> {
-                    Optional<String> result;
-                    Set<Entry<Entity<?>, EntityState>> diff = worldDiff.getEntityStateMap().entrySet();
-                    if (diff.isEmpty()) {
-                        result = Optional.empty();
-                    } else {
-                        result = Optional.of(
-                            diff
-                                .stream()
-                                .map(e -> {
-                                    return serializeEntitiesStateDiff(e.getKey(), e.getValue(), worldDiff.getFrameTime());
-                                })
-                                .collect(Collectors.joining(separators.get("COMMAND")))
-                        );
-                    }
-                    return result;
-                })
-                .filter(Optional::isPresent)
-                .map(Optional::get)
-                .collect(Collectors.toList());
-            if (serialized.isEmpty()) {
-                return Optional.empty();
-            } else {
-                return Optional.of(
-                    commands.get("UPDATE") + serialized
-                        .stream()
-                        .collect(Collectors.joining(separators.get("COMMAND")))
-                );
+    /**
+     * Appends the command updating the entities which changed in the given world diffs.
+     * 
+     * @return false if there was nothing to append.
+     */
+    boolean appendWorldDiff(StringBuilder sb, List<WorldState> diffs) {
+        String commandSeparator = separators.get("COMMAND");
+        boolean empty = true;
+        for (WorldState worldDiff : diffs) {
+            for (Entry<Entity<?>, EntityState> entry : worldDiff.getEntityStateMap().entrySet()) {
+                sb.append(empty ? commands.get("UPDATE") : commandSeparator);
+                empty = false;
+                appendEntitiesStateDiff(sb, entry.getKey(), entry.getValue(), worldDiff.getFrameTime());
             }
         }
+        return !empty;
     }
 
-}
\ No newline at end of file
+    /**
+     * Serializes all the commands of a frame, one per line.
+     * <p>
+     * The frame is written into a buffer reused from one frame to the next.
+     * 
+     * @return the serialized frame, empty if there is nothing to send.
+     */
+    String serializeFrame(
+        List<SpriteSheetLoader> spriteSheets, List<Entity<?>> entities, List<WorldState> diffs, List<String> worldCommits,
+        List<Entity<?>> destroyedEntities
+    ) {
+        StringBuilder sb = frameBuilder;
+        sb.setLength(0);
+        String commandTypeSeparator = separators.get("COMMAND_TYPE");
+        if (appendLoadSpriteSheets(sb, spriteSheets)) {
+            sb.append(commandTypeSeparator);
+        }
+        if (appendCreateEntities(sb, entities)) {
+            sb.append(commandTypeSeparator);
+        }
+        if (appendWorldDiff(sb, diffs)) {
+            sb.append(commandTypeSeparator);
+        }
+        if (appendWorldCommits(sb, worldCommits)) {
+            sb.append(commandTypeSeparator);
+        }
+        if (!appendDestroyEntities(sb, destroyedEntities) && sb.length() > 0) {
+            // Remove the trailing separator
+            sb.setLength(sb.length() - commandTypeSeparator.length());
+        }
+        return sb.toString();
+    }
+}
@@ -43,7 +43,7 @@ public abstract class Shape<T extends Entity<?>> extends Entity<T> implements Ma
     public T setFillColor(int color, Curve curve) {
         requireValidColor(color);
         this.fillColor = color;
-        set("fillColor", color, curve);
+        set(Property.FILL_COLOR, color, curve);
         return self();
     }
 
@@ -86,7 +86,7 @@ public abstract class Shape<T extends Entity<?>> extends Entity<T> implements Ma
     public T setFillAlpha(double alpha, Curve curve) {
         requireValidAlpha(alpha);
         this.fillAlpha = alpha;
-        set("fillAlpha", alpha, curve);
+        set(Property.FILL_ALPHA, alpha, curve);
         return self();
     }
 
@@ -128,7 +128,7 @@ public abstract class Shape<T extends Entity<?>> extends Entity<T> implements Ma
     public T setLineAlpha(double alpha, Curve curve) {
         requireValidAlpha(alpha);
         this.lineAlpha = alpha;
-        set("lineAlpha", alpha, curve);
+        set(Property.LINE_ALPHA, alpha, curve);
         return self();
     }
 
@@ -168,7 +168,7 @@ public abstract class Shape<T extends Entity<?>> extends Entity<T> implements Ma
      */
     public T setLineWidth(int lineWidth, Curve curve) {
         this.lineWidth = lineWidth;
-        set("lineWidth", lineWidth, curve);
+        set(Property.LINE_WIDTH, lineWidth, curve);
         return self();
     }
 
@@ -210,7 +210,7 @@ public abstract class Shape<T extends Entity<?>> extends Entity<T> implements Ma
     public T setLineColor(int lineColor, Curve curve) {
         requireValidColor(lineColor);
         this.lineColor = lineColor;
-        set("lineColor", lineColor, curve);
+        set(Property.LINE_COLOR, lineColor, curve);
         return self();
     }
 
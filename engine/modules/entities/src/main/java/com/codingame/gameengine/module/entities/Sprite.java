@@ -33,7 +33,7 @@ public class Sprite extends TextureBasedEntity<Sprite> implements Mask {
      */
     public Sprite setImage(String image) {
         this.image = image;
-        set("image", image, null);
+        set(Property.IMAGE, image, null);
         return this;
     }
 
@@ -46,7 +46,7 @@ public class Sprite extends TextureBasedEntity<Sprite> implements Mask {
      */
     public Sprite setBaseWidth(int baseWidth) {
         this.baseWidth = baseWidth;
-        set("baseWidth", baseWidth, null);
+        set(Property.BASE_WIDTH, baseWidth, null);
         return self();
     }
 
@@ -59,7 +59,7 @@ public class Sprite extends TextureBasedEntity<Sprite> implements Mask {
      */
     public Sprite setBaseHeight(int baseHeight) {
         this.baseHeight = baseHeight;
-        set("baseHeight", baseHeight, null);
+        set(Property.BASE_HEIGHT, baseHeight, null);
         return self();
     }
 
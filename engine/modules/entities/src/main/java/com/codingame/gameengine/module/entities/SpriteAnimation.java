@@ -58,7 +58,7 @@ public class SpriteAnimation extends TextureBasedEntity<SpriteAnimation> impleme
      */
     public SpriteAnimation setPlaying(boolean playing) {
         this.playing = playing;
-        set("playing", playing, null);
+        set(Property.PLAYING, playing, null);
         return this;
     }
 
@@ -68,7 +68,7 @@ public class SpriteAnimation extends TextureBasedEntity<SpriteAnimation> impleme
      * @return this animation.
      */
     public SpriteAnimation reset() {
-        set("restarted", RESTART_INDEX++, null);
+        set(Property.RESTARTED, RESTART_INDEX++, null);
         return this;
     }
 
@@ -112,7 +112,7 @@ public class SpriteAnimation extends TextureBasedEntity<SpriteAnimation> impleme
      */
     public SpriteAnimation setLoop(boolean loop) {
         this.loop = loop;
-        set("loop", loop, null);
+        set(Property.LOOP, loop, null);
         return this;
     }
 
@@ -141,7 +141,7 @@ public class SpriteAnimation extends TextureBasedEntity<SpriteAnimation> impleme
     public SpriteAnimation setDuration(int duration) {
         requireValidDuration(duration);
         this.duration = duration;
-        set("duration", duration, null);
+        set(Property.DURATION, duration, null);
         return this;
     }
 
@@ -159,7 +159,7 @@ public class SpriteAnimation extends TextureBasedEntity<SpriteAnimation> impleme
             throw new IllegalArgumentException("Animation must contain at least 1 image.");
         }
         this.images = images;
-        set("images", Stream.of(images).collect(Collectors.joining(",")), null);
+        set(Property.IMAGES, Stream.of(images).collect(Collectors.joining(",")), null);
         return this;
     }
 
@@ -46,7 +46,7 @@ public class Text extends TextureBasedEntity<Text> {
     public Text setText(String text) {
         Objects.requireNonNull(text);
         this.text = text;
-        set("text", text, null);
+        set(Property.TEXT, text, null);
         return this;
     }
 
@@ -88,7 +88,7 @@ public class Text extends TextureBasedEntity<Text> {
     public Text setStrokeColor(int strokeColor, Curve curve) {
         requireValidColor(strokeColor);
         this.strokeColor = strokeColor;
-        set("strokeColor", strokeColor, curve);
+        set(Property.STROKE_COLOR, strokeColor, curve);
         return this;
     }
 
@@ -129,7 +129,7 @@ public class Text extends TextureBasedEntity<Text> {
      */
     public Text setStrokeThickness(double strokeThickness, Curve curve) {
         this.strokeThickness = strokeThickness;
-        set("strokeThickness", strokeThickness, curve);
+        set(Property.STROKE_THICKNESS, strokeThickness, curve);
         return this;
     }
 
@@ -174,7 +174,7 @@ public class Text extends TextureBasedEntity<Text> {
      */
     public Text setFillColor(int fillColor, Curve curve) {
         this.fillColor = fillColor;
-        set("fillColor", fillColor, curve);
+        set(Property.FILL_COLOR, fillColor, curve);
         return this;
     }
 
@@ -213,7 +213,7 @@ public class Text extends TextureBasedEntity<Text> {
      */
     public Text setFontSize(int fontSize, Curve curve) {
         this.fontSize = fontSize;
-        set("fontSize", fontSize, curve);
+        set(Property.FONT_SIZE, fontSize, curve);
         return this;
     }
 
@@ -240,7 +240,7 @@ public class Text extends TextureBasedEntity<Text> {
      */
     public Text setFontFamily(String fontFamily) {
         this.fontFamily = fontFamily;
-        set("fontFamily", fontFamily, null);
+        set(Property.FONT_FAMILY, fontFamily, null);
         return this;
     }
 
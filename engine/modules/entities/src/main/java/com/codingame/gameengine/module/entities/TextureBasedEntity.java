@@ -54,7 +54,7 @@ public abstract class TextureBasedEntity<T extends Entity<?>> extends Entity<T>
      */
     public T setBlendMode(BlendMode blendMode) {
         this.blendMode = blendMode;
-        set("blendMode", blendMode.getValue(), null);
+        set(Property.BLEND_MODE, blendMode.getValue(), null);
         return self();
     }
 
@@ -110,7 +110,7 @@ public abstract class TextureBasedEntity<T extends Entity<?>> extends Entity<T>
      */
     public T setAnchorX(double anchorX, Curve curve) {
         this.anchorX = anchorX;
-        set("anchorX", anchorX, curve);
+        set(Property.ANCHOR_X, anchorX, curve);
         return self();
     }
 
@@ -151,7 +151,7 @@ public abstract class TextureBasedEntity<T extends Entity<?>> extends Entity<T>
      */
     public T setAnchorY(double anchorY, Curve curve) {
         this.anchorY = anchorY;
-        set("anchorY", anchorY, curve);
+        set(Property.ANCHOR_Y, anchorY, curve);
         return self();
     }
 
@@ -182,7 +182,7 @@ public abstract class TextureBasedEntity<T extends Entity<?>> extends Entity<T>
     public T setTint(int color, Curve curve) {
         requireValidColor(color);
         this.tint = color;
-        set("tint", color, curve);
+        set(Property.TINT, color, curve);
         return self();
     }
 
@@ -0,0 +1,61 @@
+package com.codingame.gameengine.module.entities;
+
+import java.util.Arrays;
+
+/**
+ * The world states of the frame being computed, ordered by instant.
+ * <p>
+ * Instants are quantized to the precision at which they are serialized, so that commits at instants written the same way share a world state.
+ * The world states are kept from one frame to the next to be reused.
+ */
+class Timeline {
+    private static final double PRECISION = 1e6;
+
+    private long[] instants = new long[4];
+    private WorldState[] states = new WorldState[4];
+    private int size;
+
+    /**
+     * Returns the world state at instant <code>t</code>, inserted in order if there was none yet.
+     */
+    WorldState getOrCreate(double t) {
+        long instant = (long) Math.rint(t * PRECISION);
+        int index = Arrays.binarySearch(instants, 0, size, instant);
+        if (index >= 0) {
+            return states[index];
+        }
+        index = -index - 1;
+
+        if (size == instants.length) {
+            instants = Arrays.copyOf(instants, size * 2);
+            states = Arrays.copyOf(states, size * 2);
+        }
+        // The states past the end are those of the previous frames, left to be reused
+        WorldState state = states[size];
+        String frameTime = NumberFormatter.formatDecimal(instant / PRECISION);
+        if (state == null) {
+            state = new WorldState(frameTime);
+        } else {
+            state.reset(frameTime);
+        }
+
+        System.arraycopy(instants, index, instants, index + 1, size - index);
+        System.arraycopy(states, index, states, index + 1, size - index);
+        instants[index] = instant;
+        states[index] = state;
+        size++;
+        return state;
+    }
+
+    int size() {
+        return size;
+    }
+
+    WorldState get(int index) {
+        return states[index];
+    }
+
+    void clear() {
+        size = 0;
+    }
+}
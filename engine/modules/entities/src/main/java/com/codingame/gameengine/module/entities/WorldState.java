@@ -1,13 +1,12 @@
 package com.codingame.gameengine.module.entities;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 class WorldState {
     private Map<Entity<?>, EntityState> entityStateMap;
-    private final String t;
+    private String t;
     private boolean worldCommit = false;
 
     WorldState(String t) {
@@ -15,6 +14,15 @@ class WorldState {
         entityStateMap = new HashMap<>();
     }
 
+    /**
+     * Empties this world state to reuse it at instant <code>t</code>.
+     */
+    void reset(String t) {
+        this.t = t;
+        entityStateMap.clear();
+        worldCommit = false;
+    }
+
     String getFrameTime() {
         return t;
     }
@@ -24,18 +32,17 @@ class WorldState {
     }
 
     /**
-     * Performs a flush of all the entity states that are not already present in the state map. This allows the default behaviour of commiting all
+     * Performs a flush of the entity state if it is not already present in the state map. This allows the default behaviour of commiting all
      * entities at t = 1, which can be overridden.
+     * 
+     * @return whether the entity state was flushed.
      */
-    void flushMissingEntities(List<Entity<?>> entities) {
-        entities.stream().forEach(entity -> {
-            if (!entityStateMap.containsKey(entity)) {
-                entityStateMap.put(entity, entity.state);
-                entity.state = new EntityState();
-            }
-
-        });
-
+    boolean flushMissingEntity(Entity<?> entity) {
+        if (entityStateMap.containsKey(entity)) {
+            return false;
+        }
+        flushEntityState(entity);
+        return true;
     }
 
     void markAsWorldCommit() {
@@ -50,14 +57,19 @@ class WorldState {
         if (oldState == null) {
             entityStateMap.put(entity, currentState);
         } else {
-            currentState.forEach((key, value) -> oldState.put(key, value));
+            oldState.putAll(currentState);
         }
     }
 
     void flushEntityState(Entity<?> entity) {
         final EntityState state = entityStateMap.get(entity);
-        updateStateMap(state, entity.state, entity);
-        entity.state = new EntityState();
+        if (state == null) {
+            entityStateMap.put(entity, entity.state);
+            entity.state = new EntityState();
+        } else {
+            state.putAll(entity.state);
+            entity.state.clear();
+        }
     }
 
     void updateAllEntities(WorldState next) {
@@ -0,0 +1,170 @@
+import {CreateCommand, PropertiesCommand, LoadCommand, WorldCommitCommand, DestroyCommand} from './Command.js'
+
+// In the order of the Property enum of the GraphicEntityModule, with how their values are encoded
+const PROPERTIES = [
+  ['x', 'int'], ['y', 'int'], ['zIndex', 'int'], ['scaleX', 'double'], ['scaleY', 'double'], ['alpha', 'double'],
+  ['rotation', 'angle'], ['visible', 'boolean'], ['mask', 'int'], ['radius', 'int'], ['x2', 'int'], ['y2', 'int'],
+  ['width', 'int'], ['height', 'int'], ['fillColor', 'int'], ['fillAlpha', 'double'], ['lineColor', 'int'],
+  ['lineWidth', 'int'], ['lineAlpha', 'double'], ['children', 'string'], ['image', 'string'], ['baseWidth', 'int'],
+  ['baseHeight', 'int'], ['images', 'string'], ['loop', 'boolean'], ['playing', 'boolean'], ['duration', 'int'],
+  ['restarted', 'int'], ['text', 'string'], ['fontFamily', 'string'], ['fontSize', 'int'], ['strokeColor', 'int'],
+  ['strokeThickness', 'double'], ['anchorX', 'double'], ['anchorY', 'double'], ['blendMode', 'int'], ['tint', 'int']
+]
+
+// In the order of the Entity.Type enum
+const TYPES = ['C', 'L', 'R', 'S', 'T', 'G', 'B', 'A']
+
+// In the order of the Curve enum, the linear curve being the default
+const CURVES = [null, '_', 'Γ', '∫', '~']
+
+const RAW_DOUBLE = 0x40
+const WITH_CURVE = 0x80
+const PROPERTY_MASK = 0x3F
+const PRECISION = 1e6
+
+class ByteReader {
+  constructor (base64) {
+    const binary = atob(base64)
+    this.bytes = new Uint8Array(binary.length)
+    for (let i = 0; i < binary.length; i++) {
+      this.bytes[i] = binary.charCodeAt(i)
+    }
+    this.offset = 0
+  }
+
+  hasMore () {
+    return this.offset < this.bytes.length
+  }
+
+  readByte () {
+    return this.bytes[this.offset++]
+  }
+
+  readVarint () {
+    let value = 0
+    let factor = 1
+    let byte
+    do {
+      byte = this.readByte()
+      value += (byte & 0x7F) * factor
+      factor *= 128
+    } while (byte & 0x80)
+    return value
+  }
+
+  readSignedVarint () {
+    const value = this.readVarint()
+    return value % 2 === 0 ? value / 2 : -(value + 1) / 2
+  }
+
+  readDouble () {
+    const view = new DataView(this.bytes.buffer, this.offset, 8)
+    this.offset += 8
+    return view.getFloat64(0)
+  }
+
+  readString () {
+    const length = this.readVarint()
+    const bytes = this.bytes.subarray(this.offset, this.offset + length)
+    this.offset += length
+    return new TextDecoder('utf-8').decode(bytes)
+  }
+}
+
+// Strings are given to the commands escaped as in the text format
+function escape (text) {
+  const escaped = text.split("'").join("\\'")
+  return escaped.includes(' ') ? "'" + escaped + "'" : escaped
+}
+
+function readProperty (reader, args, lastInts) {
+  const header = reader.readByte()
+  const index = header & PROPERTY_MASK
+  const [name, kind] = PROPERTIES[index]
+  const curve = (header & WITH_CURVE) ? CURVES[reader.readByte()] : null
+
+  let value
+  switch (kind) {
+    case 'int':
+      lastInts[index] += reader.readSignedVarint()
+      value = String(lastInts[index])
+      break
+    case 'double':
+      value = String((header & RAW_DOUBLE) ? reader.readDouble() : reader.readSignedVarint() / PRECISION)
+      break
+    case 'angle':
+      value = String(reader.readSignedVarint())
+      break
+    case 'boolean':
+      value = reader.readByte() ? '1' : '0'
+      break
+    default:
+      value = escape(reader.readString())
+  }
+  args.push(name, value)
+  if (curve) {
+    args.push(curve)
+  }
+}
+
+export class BinaryFrameParser {
+  static parse (base64, globalData, frameInfo) {
+    const reader = new ByteReader(base64)
+    const commands = []
+    while (reader.hasMore()) {
+      const section = String.fromCharCode(reader.readByte())
+      const count = reader.readVarint()
+      let lastId = 0
+      switch (section) {
+        case 'L':
+          for (let i = 0; i < count; i++) {
+            const args = [reader.readString(), reader.readString()]
+            for (let j = 0; j < 6; j++) {
+              args.push(reader.readSignedVarint())
+            }
+            commands.push(new LoadCommand(args, globalData))
+          }
+          break
+        case 'C':
+          for (let i = 0; i < count; i++) {
+            commands.push(new CreateCommand([TYPES[reader.readByte()]], globalData))
+          }
+          break
+        case 'U': {
+          const lastInts = PROPERTIES.map(() => 0)
+          for (let i = 0; i < count; i++) {
+            const t = String(reader.readVarint() / PRECISION)
+            const entityCount = reader.readVarint()
+            for (let j = 0; j < entityCount; j++) {
+              lastId += reader.readSignedVarint()
+              const args = [String(lastId), t]
+              const propertyCount = reader.readVarint()
+              for (let k = 0; k < propertyCount; k++) {
+                readProperty(reader, args, lastInts)
+              }
+              commands.push(new PropertiesCommand(args, globalData, frameInfo))
+            }
+          }
+          break
+        }
+        case 'W': {
+          const times = []
+          for (let i = 0; i < count; i++) {
+            times.push(String(reader.readVarint() / PRECISION))
+          }
+          commands.push(new WorldCommitCommand(times, globalData))
+          break
+        }
+        case 'D':
+          for (let i = 0; i < count; i++) {
+            lastId += reader.readSignedVarint()
+            commands.push(new DestroyCommand([String(lastId)], globalData))
+          }
+          break
+        default:
+          throw new Error('Unrecognised binary command : ' + section)
+      }
+    }
+    return commands
+  }
+}
@@ -161,3 +161,14 @@ export class WorldCommitCommand {
     })
   }
 }
+
+export class DestroyCommand {
+  constructor (args, globalData) {
+    this.id = +args[0]
+  }
+
+  apply (entities, frameInfo) {
+    // The entity is kept to replay the previous frames, but is no longer extrapolated after this one
+    entities.get(this.id).destroyedAt = frameInfo.number
+  }
+}
@@ -1,10 +1,14 @@
-import {CreateCommand, PropertiesCommand, LoadCommand, WorldCommitCommand} from './Command.js'
+import {CreateCommand, PropertiesCommand, LoadCommand, WorldCommitCommand, DestroyCommand} from './Command.js'
+import {BinaryFrameParser} from './BinaryFrameParser.js'
+
+const BINARY_FRAME_PREFIX = '#'
 
 const COMMAND_KEY_MAP = {
   C: CreateCommand,
   U: PropertiesCommand,
   L: LoadCommand,
-  W: WorldCommitCommand
+  W: WorldCommitCommand,
+  D: DestroyCommand
 }
 
 function splitOnCharOutsideQuotes (text, charParam) {
@@ -49,6 +53,9 @@ function getCommands (Type, text, globalData, frameInfo) {
 }
 export class CommandParser {
   static parse (line, globalData, frameInfo) {
+    if (line[0] === BINARY_FRAME_PREFIX) {
+      return BinaryFrameParser.parse(line.slice(1), globalData, frameInfo)
+    }
     let commands = []
 
     const commandChunks = splitOnCharOutsideQuotes(line, '\n')
@@ -75,6 +75,10 @@ export class GraphicEntityModule {
     const previousFrameNumber = frameInfo.previous.number
     this
       .entities.forEach(entity => {
+        // Destroyed entities have no state, they will not be rendered
+        if (entity.destroyedAt < frameNumber) {
+          return
+        }
         // Create empty substate array if none
         if (!entity.states[frameNumber]) {
           entity.states[frameNumber] = []
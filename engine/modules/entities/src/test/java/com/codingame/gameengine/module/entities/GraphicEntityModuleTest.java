@@ -0,0 +1,100 @@
+package com.codingame.gameengine.module.entities;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.codingame.gameengine.core.AbstractMultiplayerPlayer;
+import com.codingame.gameengine.core.AbstractPlayer;
+import com.codingame.gameengine.core.GameManager;
+import com.codingame.gameengine.core.MultiplayerGameManager;
+
+public class GraphicEntityModuleTest {
+
+    private GraphicEntityModule module;
+
+    @Before
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void setUp() {
+        module = new GraphicEntityModule((GameManager<AbstractPlayer>) (GameManager) new MultiplayerGameManager<>());
+    }
+
+    @Test
+    public void destroyedChildIsRemovedFromItsGroup() {
+        Group group = module.createGroup();
+        Circle kept = module.createCircle();
+        Circle projectile = module.createCircle();
+        group.add(kept, projectile);
+
+        module.destroyEntities(projectile);
+
+        assertEquals(1, group.getEntities().size());
+        assertTrue(group.getEntities().contains(kept));
+        assertNull(projectile.parent);
+        assertEquals(String.valueOf(kept.getId()), group.state.getString(Property.CHILDREN));
+    }
+
+    @Test
+    public void childrenOfDestroyedGroupAreDestroyed() {
+        Group group = module.createGroup();
+        Circle child = module.createCircle();
+        group.add(child);
+
+        module.destroyEntities(group);
+
+        assertTrue(group.destroyed);
+        assertTrue(child.destroyed);
+    }
+
+    @Test
+    public void addingAChildAgainKeepsIt() {
+        Group group = module.createGroup();
+        Circle child = module.createCircle();
+        group.add(child);
+
+        group.add(child);
+
+        assertEquals(1, group.getEntities().size());
+        assertEquals(group, child.parent);
+    }
+
+    @Test
+    public void addingAChildToAnotherGroupMovesIt() {
+        Group from = module.createGroup();
+        Group to = module.createGroup();
+        Circle child = module.createCircle();
+        from.add(child);
+
+        to.add(child);
+
+        assertTrue(from.getEntities().isEmpty());
+        assertEquals("", from.state.getString(Property.CHILDREN));
+        assertTrue(to.getEntities().contains(child));
+        assertEquals(to, child.parent);
+    }
+
+    @Test
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public void idsOfDestroyedEntitiesAreNotGivenAgainWhenHeadless() throws ReflectiveOperationException {
+        MultiplayerGameManager<AbstractMultiplayerPlayer> headlessManager = new MultiplayerGameManager<>();
+        // GameManager.setHeadless is only reachable from the engine
+        Field headless = GameManager.class.getDeclaredField("headless");
+        headless.setAccessible(true);
+        headless.set(headlessManager, true);
+        GraphicEntityModule headlessModule = new GraphicEntityModule((GameManager<AbstractPlayer>) (GameManager) headlessManager);
+        Circle destroyed = headlessModule.createCircle();
+        headlessModule.destroyEntities(destroyed);
+        headlessModule.onAfterGameTurn();
+
+        Circle created = headlessModule.createCircle();
+
+        assertNotEquals(destroyed.getId(), created.getId());
+        assertEquals(2, created.getId());
+    }
+}
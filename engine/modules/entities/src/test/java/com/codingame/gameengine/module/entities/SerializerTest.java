@@ -0,0 +1,68 @@
+package com.codingame.gameengine.module.entities;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+public class SerializerTest {
+
+    private static final int THREADS = 4;
+    private static final int FRAMES = 2000;
+
+    @Test
+    public void concurrentGamesSerializeTheSameFrames() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<Integer>> games = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                // Each game has values of its own, serialized once alone for reference
+                List<WorldState> diffs = createDiffs(i);
+                String expected = serialize(new Serializer(), diffs);
+                // One serializer per thread, as with one game per thread
+                games.add(() -> {
+                    Serializer serializer = new Serializer();
+                    int corrupted = 0;
+                    for (int frame = 0; frame < FRAMES; frame++) {
+                        if (!serialize(serializer, diffs).equals(expected)) {
+                            corrupted++;
+                        }
+                    }
+                    return corrupted;
+                });
+            }
+            for (Future<Integer> corrupted : executor.invokeAll(games)) {
+                assertEquals(0, (int) corrupted.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<WorldState> createDiffs(int game) {
+        WorldState end = new WorldState("1");
+        end.markAsWorldCommit();
+        for (int i = 0; i < 100; i++) {
+            Circle circle = new Circle();
+            circle.id = i + 1;
+            // Ties at the 7th decimal and values over 1e7 are left to the DecimalFormat
+            circle.setScaleX(game * 1000 + i + 0.0000005).setScaleY(1e7 * (game + 1) + i * 0.25).setAlpha(i / 1000.0);
+            end.flushEntityState(circle);
+        }
+        return Arrays.asList(end);
+    }
+
+    private static String serialize(Serializer serializer, List<WorldState> diffs) {
+        return serializer.serializeFrame(
+            Collections.emptyList(), Collections.emptyList(), diffs, Collections.emptyList(), Collections.emptyList()
+        );
+    }
+}
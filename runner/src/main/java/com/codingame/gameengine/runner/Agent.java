@@ -5,6 +5,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.Charset;
 import java.util.Properties;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -18,15 +19,21 @@ abstract class Agent {
     private static Log log = LogFactory.getLog(Agent.class);
 
     private OutputStream processStdin;
-    private InputStream processStdout;
+    private BlockingPipe.Source processStdout;
     private InputStream processStderr;
     private int totalStderrBytesSent = 0;
     private int agentId;
     private boolean lastAgentByteIsCarriageReturn = false;
+    private byte[] outputBuffer = new byte[0];
+    private byte[] lookAhead = new byte[4096];
+    private byte[] errorBuffer;
+    private int lookAheadPos = 0;
+    private int lookAheadLimit = 0;
     private boolean failed = false;
 
     private String nickname;
     private String avatar;
+    private Executor executor;
 
     public Agent() {
     }
@@ -52,7 +59,7 @@ abstract class Agent {
     public void execute() {
         try {
             this.processStdin = getInputStream();
-            this.processStdout = getOutputStream();
+            this.processStdout = asPipeSource(getOutputStream());
             this.processStderr = getErrorStream();
             runInputOutput();
         } catch (Exception e) {
@@ -64,6 +71,29 @@ abstract class Agent {
     public void destroy() {
     }
 
+    /**
+     * Sets the executor to run the tasks of the agent on, or null to run each of them on a thread of its own.
+     */
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Waits until the agent is ready to be sent its first input, but not past the given deadline. An agent which does not know when it is
+     * ready is ready as soon as it is executed.
+     *
+     * @param deadline
+     *            the time to give up at, as given by <code>System.nanoTime()</code>
+     * @return true if the agent is ready, false if the deadline was reached first
+     */
+    public boolean awaitReady(long deadline) {
+        return true;
+    }
+
     /**
      * Launch the agent. After the call, agent is ready to process input / output
      *
@@ -92,6 +122,13 @@ abstract class Agent {
         }
     }
 
+    private static BlockingPipe.Source asPipeSource(InputStream stream) {
+        if (stream == null || stream instanceof BlockingPipe.Source) {
+            return (BlockingPipe.Source) stream;
+        }
+        return BlockingPipe.drain(stream, 100_000);
+    }
+
     /**
      * Get the output of an agent
      *
@@ -102,49 +139,63 @@ abstract class Agent {
      * @return the agent output
      */
     public String getOutput(int nbLine, long timeout) {
+        return getOutput(nbLine, timeout, AGENT_MAX_BUFFER_SIZE);
+    }
+
+    /**
+     * Get the output of an agent. The calling thread is blocked until the lines are read, the buffer is full or the timeout is reached.
+     * <p>
+     * Bytes read beyond the last wanted line are kept for the next call.
+     *
+     * @param nbLine
+     *            Number of lines wanted
+     * @param timeout
+     *            Stop reading after timeout milliseconds
+     * @param maxBufferSize
+     *            Maximum number of bytes to read
+     * @return the agent output
+     */
+    protected String getOutput(int nbLine, long timeout, int maxBufferSize) {
         if (processStdout == null) {
             return null;
         }
 
         try {
-            byte[] tmp = new byte[AGENT_MAX_BUFFER_SIZE];
+            if (outputBuffer.length < maxBufferSize) {
+                outputBuffer = new byte[maxBufferSize];
+            }
+            byte[] tmp = outputBuffer;
             int offset = 0;
             int nbOccurences = 0;
 
-            long t0 = System.nanoTime();
-
-            while ((offset < AGENT_MAX_BUFFER_SIZE) && (nbOccurences < nbLine)) {
-                long current = System.nanoTime();
-                if ((current - t0) > (timeout * 1_000_000l)) {
-                    break;
-                }
+            long deadline = System.nanoTime() + timeout * 1_000_000L;
 
-                if (processStdout.available() > 0) {
-                    int nbRead = processStdout.read(tmp, offset, 1);
-                    if (nbRead < 0) {
-                        // Should not happen, just in case...
+            while ((offset < maxBufferSize) && (nbOccurences < nbLine)) {
+                if (lookAheadPos == lookAheadLimit) {
+                    int nbRead = processStdout.read(lookAhead, 0, lookAhead.length, deadline);
+                    if (nbRead <= 0) {
+                        // Timeout or end of stream
                         break;
                     }
-                    byte curByte = tmp[offset];
-                    if (!((curByte == '\n') && lastAgentByteIsCarriageReturn)) {
-                        offset += nbRead;
-                        if ((curByte == '\n') || (curByte == '\r')) {
-                            ++nbOccurences;
-                        }
-                    }
-                    lastAgentByteIsCarriageReturn = curByte == '\r';
-                } else {
-                    if ((offset < AGENT_MAX_BUFFER_SIZE) && (nbOccurences < nbLine)) {
-                        Thread.sleep(1);
+                    lookAheadPos = 0;
+                    lookAheadLimit = nbRead;
+                }
+
+                byte curByte = lookAhead[lookAheadPos++];
+                if (!((curByte == '\n') && lastAgentByteIsCarriageReturn)) {
+                    tmp[offset++] = curByte;
+                    if ((curByte == '\n') || (curByte == '\r')) {
+                        ++nbOccurences;
                     }
                 }
+                lastAgentByteIsCarriageReturn = curByte == '\r';
             }
 
             return new String(tmp, 0, offset, UTF8);
         } catch (IOException e1) {
             processStdout = null;
         } catch (InterruptedException e) {
-            // wtf
+            Thread.currentThread().interrupt();
         }
         return null;
     }
@@ -165,9 +216,11 @@ abstract class Agent {
                     limitStderrSize = 1024;
                 }
 
-                byte[] tmp = new byte[limitStderrSize];
-                int nbRead = processStderr.read(tmp, 0, limitStderrSize);
-                return new String(tmp, 0, nbRead, UTF8);
+                if (errorBuffer == null) {
+                    errorBuffer = new byte[4096];
+                }
+                int nbRead = processStderr.read(errorBuffer, 0, limitStderrSize);
+                return new String(errorBuffer, 0, nbRead, UTF8);
 
             }
         } catch (IOException e) {
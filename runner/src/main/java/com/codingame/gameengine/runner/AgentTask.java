@@ -0,0 +1,97 @@
+package com.codingame.gameengine.runner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A task of a game, such as running the referee or an AI, or writing the inputs of an agent, run on the executor of the game or on a thread of its
+ * own.
+ * <p>
+ * The task is cancelled by interrupting the thread running it, whichever it is, and routes its console output like the thread which started it.
+ */
+class AgentTask implements Runnable {
+
+    private final Runnable task;
+    private final ConsoleCapture console = ConsoleCapture.current();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private Thread thread;
+    private boolean cancelled = false;
+
+    private AgentTask(Runnable task) {
+        this.task = task;
+    }
+
+    /**
+     * Starts a task on the given executor, or on a new daemon thread with the given name if the executor is null.
+     *
+     * @param task
+     *            the task to run
+     * @param name
+     *            the name of the thread if one is started for the task
+     * @param executor
+     *            the executor to run the task on, may be null
+     * @return the started task
+     */
+    static AgentTask start(Runnable task, String name, Executor executor) {
+        AgentTask agentTask = new AgentTask(task);
+        if (executor != null) {
+            executor.execute(agentTask);
+        } else {
+            Thread thread = new Thread(agentTask, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return agentTask;
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (cancelled) {
+                finished.countDown();
+                return;
+            }
+            thread = Thread.currentThread();
+        }
+        ConsoleCapture.bind(console);
+        try {
+            task.run();
+        } finally {
+            synchronized (this) {
+                thread = null;
+            }
+            // A cancellation which came too late must not interrupt the next task of a pooled thread
+            Thread.interrupted();
+            ConsoleCapture.bind(null);
+            finished.countDown();
+        }
+    }
+
+    /**
+     * Interrupts the thread running the task, or prevents the task from running if it has not started yet. The task is expected to end on its
+     * own once interrupted.
+     */
+    synchronized void cancel() {
+        cancelled = true;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Waits for the task to end.
+     *
+     * @param timeout
+     *            the maximum time to wait, in milliseconds
+     * @return true if the task has ended, false if the timeout was reached first
+     */
+    boolean awaitEnd(long timeout) {
+        try {
+            return finished.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
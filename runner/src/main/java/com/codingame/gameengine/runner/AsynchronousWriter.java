@@ -4,7 +4,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.concurrent.BlockingQueue;
 
-class AsynchronousWriter extends Thread {
+class AsynchronousWriter implements Runnable {
 
     private final BlockingQueue<String> queue;
     private final OutputStream stream;
@@ -0,0 +1,327 @@
+package com.codingame.gameengine.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * The class to use to simulate many multiplayer games concurrently in the same JVM, without displaying any replay.
+ * <p>
+ * Each game is a <code>MultiplayerGameRunner</code> run on the given executor. The games added with a seed and a line-up only keep them until
+ * they start: their runner and its agents are created when the game starts, so that a batch of many games does not hold their buffers in memory
+ * while they wait.
+ */
+public class BatchGameRunner {
+
+    private final Executor executor;
+    private final List<Supplier<MultiplayerGameRunner>> games = new ArrayList<>();
+    private Properties gameParameters;
+    private boolean refereeConsoleCaptured = true;
+    private boolean headless = false;
+    private boolean directRefereeChannel = false;
+    private long bootstrapTimeout = 300;
+    private Executor agentExecutor;
+    private boolean playerClassesShared = false;
+    private Supplier<GameResultSink> resultSinks;
+
+    /**
+     * Creates a batch runner running as many games at the same time as there are available processors.
+     */
+    public BatchGameRunner() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a batch runner running up to <code>parallelism</code> games at the same time.
+     *
+     * @param parallelism
+     *            the maximum number of games to run concurrently.
+     */
+    public BatchGameRunner(int parallelism) {
+        this(createExecutor(parallelism));
+    }
+
+    /**
+     * Creates a batch runner running its games on the given executor.
+     *
+     * @param executor
+     *            the executor to run each game on.
+     */
+    public BatchGameRunner(Executor executor) {
+        this.executor = executor;
+    }
+
+    private static Executor createExecutor(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Invalid parallelism: " + parallelism);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+            parallelism, parallelism, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "Batch game " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Creates an executor suited to run the agents of many games at the same time: one running each task on a new virtual thread when the JVM
+     * supports them, from Java 21, and otherwise a pool of daemon threads reused from game to game.
+     * <p>
+     * The pool has no upper bound, as the tasks of a game wait for each other and would hang if some of them could not run.
+     *
+     * @return an executor to give to {@link #setAgentExecutor(Executor)}.
+     */
+    public static Executor newAgentExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "Batch agent " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * <p>
+     * The game parameters are used to pass additional information to the Game Manager of every game added afterwards.
+     * </p>
+     *
+     * @param gameParameters
+     *            the parameters to send
+     */
+    public void setGameParameters(Properties gameParameters) {
+        this.gameParameters = gameParameters;
+    }
+
+    /**
+     * Sets whether what the referees print on the console is captured in the results of every game added afterwards. Default is true.
+     *
+     * @param captured
+     *            whether to capture the referees' console output.
+     * @see MultiplayerGameRunner#setRefereeConsoleCaptured(boolean)
+     */
+    public void setRefereeConsoleCaptured(boolean captured) {
+        this.refereeConsoleCaptured = captured;
+    }
+
+    /**
+     * Sets whether every game added afterwards is run without computing any view data. Default is false.
+     *
+     * @param headless
+     *            whether to skip computing view data.
+     * @see MultiplayerGameRunner#setHeadless(boolean)
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+    }
+
+    /**
+     * Sets whether the referees of every game added afterwards exchange commands with their runner directly in memory. Default is false.
+     *
+     * @param direct
+     *            whether to use a direct channel with the referees.
+     * @see MultiplayerGameRunner#setDirectRefereeChannel(boolean)
+     */
+    public void setDirectRefereeChannel(boolean direct) {
+        this.directRefereeChannel = direct;
+    }
+
+    /**
+     * Sets how long every game added afterwards waits at most for its players to be ready. Default is 300 milliseconds.
+     *
+     * @param bootstrapTimeout
+     *            the maximum time to wait, in milliseconds.
+     * @see MultiplayerGameRunner#setBootstrapTimeout(long)
+     */
+    public void setBootstrapTimeout(long bootstrapTimeout) {
+        this.bootstrapTimeout = bootstrapTimeout;
+    }
+
+    /**
+     * Sets the executor to run the referees and the agents of every game added afterwards on. Default is a new thread for each of them.
+     *
+     * @param agentExecutor
+     *            the executor to share between the games, or null to start threads for each game.
+     * @see #newAgentExecutor()
+     * @see MultiplayerGameRunner#setAgentExecutor(Executor)
+     */
+    public void setAgentExecutor(Executor agentExecutor) {
+        this.agentExecutor = agentExecutor;
+    }
+
+    /**
+     * Sets whether the Java AIs of every game added afterwards reuse the classes loaded for the previous games. Default is false.
+     *
+     * @param shared
+     *            whether to share the classes of the Java AIs between games.
+     * @see MultiplayerGameRunner#setPlayerClassesShared(boolean)
+     */
+    public void setPlayerClassesShared(boolean shared) {
+        this.playerClassesShared = shared;
+    }
+
+    /**
+     * Sets where every game added afterwards pushes its outputs, errors, summaries and views turn by turn. Default is to gather them in the
+     * results of the games.
+     *
+     * @param resultSinks
+     *            gives a new sink for each game when the game starts, or null to gather the results in memory.
+     * @see MultiplayerGameRunner#setGameResultSink(GameResultSink)
+     */
+    public void setGameResultSinks(Supplier<GameResultSink> resultSinks) {
+        this.resultSinks = resultSinks;
+    }
+
+    /**
+     * Adds a game to the batch.
+     *
+     * @param game
+     *            a runner with its seed, parameters and agents already set.
+     */
+    public void addGame(MultiplayerGameRunner game) {
+        games.add(() -> game);
+    }
+
+    /**
+     * Adds a game to the batch with the given seed and line-up of Java AIs.
+     *
+     * @param seed
+     *            the seed sent to the Game Manager, may be null.
+     * @param playerClasses
+     *            the Java classes of the AIs, in player order.
+     */
+    public void addGame(Long seed, Class<?>... playerClasses) {
+        Class<?>[] lineUp = playerClasses.clone();
+        addGame(seed, game -> {
+            for (Class<?> playerClass : lineUp) {
+                game.addAgent(playerClass);
+            }
+        });
+    }
+
+    /**
+     * Adds a game to the batch with the given seed and line-up of AIs run as system commands.
+     *
+     * @param seed
+     *            the seed sent to the Game Manager, may be null.
+     * @param commandLines
+     *            the system command lines to run the AIs, in player order.
+     */
+    public void addGame(Long seed, String... commandLines) {
+        String[] lineUp = commandLines.clone();
+        addGame(seed, game -> {
+            for (String commandLine : lineUp) {
+                game.addAgent(commandLine);
+            }
+        });
+    }
+
+    /**
+     * Adds a game to the batch with the given seed and line-up of AIs run as system commands, each playing with a process taken from its pool.
+     *
+     * @param seed
+     *            the seed sent to the Game Manager, may be null.
+     * @param pools
+     *            the pools of processes of the AIs, in player order.
+     */
+    public void addGame(Long seed, PlayerProcessPool... pools) {
+        PlayerProcessPool[] lineUp = pools.clone();
+        addGame(seed, game -> {
+            for (PlayerProcessPool pool : lineUp) {
+                game.addAgent(pool);
+            }
+        });
+    }
+
+    /**
+     * Adds one game per seed to the batch, all with the same line-up of Java AIs.
+     *
+     * @param seeds
+     *            the seeds of the games to add.
+     * @param playerClasses
+     *            the Java classes of the AIs, in player order.
+     */
+    public void addGames(List<Long> seeds, Class<?>... playerClasses) {
+        for (Long seed : seeds) {
+            addGame(seed, playerClasses);
+        }
+    }
+
+    /**
+     * Adds a game whose runner is created when it starts, with the settings of the batch as they are now.
+     */
+    private void addGame(Long seed, Consumer<MultiplayerGameRunner> lineUp) {
+        GameSettings settings = new GameSettings();
+        games.add(() -> {
+            MultiplayerGameRunner game = settings.createGame(seed);
+            lineUp.accept(game);
+            return game;
+        });
+    }
+
+    /**
+     * Starts all the games added so far and empties the batch.
+     * <p>
+     * The games run concurrently on the executor. The returned stream gives their results in the order the games were added, each element waiting
+     * for its game to end.
+     *
+     * @return the results of the games.
+     */
+    public Stream<GameResult> simulate() {
+        List<CompletableFuture<GameResult>> results = new ArrayList<>(games.size());
+        for (Supplier<MultiplayerGameRunner> game : games) {
+            results.add(CompletableFuture.supplyAsync(() -> game.get().simulate(), executor));
+        }
+        games.clear();
+        return results.stream().map(CompletableFuture::join);
+    }
+
+    /**
+     * The settings of the batch when a game was added, applied to its runner once it starts.
+     */
+    private class GameSettings {
+        private final Properties gameParameters = BatchGameRunner.this.gameParameters;
+        private final boolean refereeConsoleCaptured = BatchGameRunner.this.refereeConsoleCaptured;
+        private final boolean headless = BatchGameRunner.this.headless;
+        private final boolean directRefereeChannel = BatchGameRunner.this.directRefereeChannel;
+        private final long bootstrapTimeout = BatchGameRunner.this.bootstrapTimeout;
+        private final Executor agentExecutor = BatchGameRunner.this.agentExecutor;
+        private final boolean playerClassesShared = BatchGameRunner.this.playerClassesShared;
+        private final Supplier<GameResultSink> resultSinks = BatchGameRunner.this.resultSinks;
+
+        MultiplayerGameRunner createGame(Long seed) {
+            MultiplayerGameRunner game = new MultiplayerGameRunner();
+            game.setSeed(seed);
+            game.setGameParameters(gameParameters);
+            game.setRefereeConsoleCaptured(refereeConsoleCaptured);
+            game.setHeadless(headless);
+            game.setDirectRefereeChannel(directRefereeChannel);
+            game.setBootstrapTimeout(bootstrapTimeout);
+            game.setAgentExecutor(agentExecutor);
+            game.setPlayerClassesShared(playerClassesShared);
+            if (resultSinks != null) {
+                game.setGameResultSink(resultSinks.get());
+            }
+            return game;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.codingame.gameengine.runner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An in-memory byte pipe between two threads.
+ * <p>
+ * Unlike <code>PipedInputStream</code>, a blocked reader is woken up as soon as bytes are written and a read can be bounded by a deadline, so that
+ * agent outputs can be read without polling. Waiting is done on a lock rather than on a monitor, so that virtual threads running agents do not pin
+ * their carrier thread while blocked on a pipe.
+ */
+class BlockingPipe {
+
+    private final byte[] buffer;
+    private int readPos = 0;
+    private int count = 0;
+    private boolean writerClosed = false;
+    private boolean readerClosed = false;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+
+    private final Source source = new Source();
+    private final Sink sink = new Sink();
+
+    BlockingPipe(int capacity) {
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * Starts a daemon thread copying the given stream into a new pipe.
+     *
+     * @param stream
+     *            the stream to drain, typically the output of a process
+     * @param capacity
+     *            the capacity of the pipe
+     * @return the readable end of the pipe
+     */
+    static Source drain(InputStream stream, int capacity) {
+        BlockingPipe pipe = new BlockingPipe(capacity);
+        Thread pump = new Thread(() -> {
+            byte[] tmp = new byte[4096];
+            try {
+                int nbRead;
+                while ((nbRead = stream.read(tmp)) >= 0) {
+                    pipe.sink.write(tmp, 0, nbRead);
+                }
+            } catch (IOException e) {
+                // The process is gone or the pipe was closed by the reader
+            } finally {
+                pipe.sink.close();
+            }
+        }, "Pipe pump");
+        pump.setDaemon(true);
+        pump.start();
+        return pipe.source;
+    }
+
+    Source getSource() {
+        return source;
+    }
+
+    Sink getSink() {
+        return sink;
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        lock.lock();
+        try {
+            while (len > 0) {
+                while (count == buffer.length && !readerClosed) {
+                    try {
+                        changed.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException();
+                    }
+                }
+                if (readerClosed || writerClosed) {
+                    throw new IOException("Pipe closed");
+                }
+                int writePos = (readPos + count) % buffer.length;
+                int chunk = Math.min(len, Math.min(buffer.length - count, buffer.length - writePos));
+                System.arraycopy(b, off, buffer, writePos, chunk);
+                count += chunk;
+                off += chunk;
+                len -= chunk;
+                changed.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int read(byte[] b, int off, int len, long deadline, boolean timed) throws IOException, InterruptedException {
+        if (len == 0) {
+            return 0;
+        }
+        lock.lock();
+        try {
+            while (count == 0) {
+                if (readerClosed) {
+                    throw new IOException("Pipe closed");
+                }
+                if (writerClosed) {
+                    return -1;
+                }
+                if (timed) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return 0;
+                    }
+                    changed.awaitNanos(remaining);
+                } else {
+                    changed.await();
+                }
+            }
+            int chunk = Math.min(len, Math.min(count, buffer.length - readPos));
+            System.arraycopy(buffer, readPos, b, off, chunk);
+            readPos = (readPos + chunk) % buffer.length;
+            count -= chunk;
+            if (count == 0) {
+                readPos = 0;
+            }
+            changed.signalAll();
+            return chunk;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int available() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeWriter() {
+        lock.lock();
+        try {
+            writerClosed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeReader() {
+        lock.lock();
+        try {
+            readerClosed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The readable end of a <code>BlockingPipe</code>.
+     */
+    class Source extends InputStream {
+
+        /**
+         * Reads up to <code>len</code> bytes, blocking until at least one byte is available, the pipe is closed or the deadline is reached.
+         *
+         * @param b
+         *            the destination buffer
+         * @param off
+         *            the offset in the destination buffer
+         * @param len
+         *            the maximum number of bytes to read
+         * @param deadline
+         *            the <code>System.nanoTime()</code> after which to give up waiting
+         * @return the number of bytes read, 0 if the deadline was reached or -1 if the writer closed the pipe
+         * @throws IOException
+         *             if this end of the pipe was closed
+         * @throws InterruptedException
+         *             if the reading thread is interrupted while waiting
+         */
+        int read(byte[] b, int off, int len, long deadline) throws IOException, InterruptedException {
+            return BlockingPipe.this.read(b, off, len, deadline, true);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] tmp = new byte[1];
+            int nbRead = read(tmp, 0, 1);
+            return nbRead < 0 ? -1 : (tmp[0] & 0xFF);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            try {
+                return BlockingPipe.this.read(b, off, len, 0, false);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+        }
+
+        @Override
+        public int available() {
+            return BlockingPipe.this.available();
+        }
+
+        @Override
+        public void close() {
+            closeReader();
+        }
+    }
+
+    /**
+     * The writable end of a <code>BlockingPipe</code>.
+     */
+    class Sink extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            BlockingPipe.this.write(b, off, len);
+        }
+
+        @Override
+        public void close() {
+            closeWriter();
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package com.codingame.gameengine.runner;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 class Command {
     interface CommandKey {
@@ -18,32 +16,74 @@ class Command {
         VIEW, INFOS, NEXT_PLAYER_INPUT, NEXT_PLAYER_INFO, SCORES, UINPUT, TOOLTIP, SUMMARY, METADATA, FAIL;
     }
 
-    private List<String> lines;
-    private CommandKey key;
+    private final List<String> lines;
+    private final CommandKey key;
+    private String text;
 
     public Command(CommandKey key) {
-        this.key = key;
-        lines = new ArrayList<>();
+        this(key, 10);
     }
 
-    public Command(CommandKey key, String... lines) {
+    /**
+     * Creates a command with room for the given number of lines.
+     */
+    public Command(CommandKey key, int lineCount) {
         this.key = key;
-        this.lines = Arrays.asList(lines);
+        lines = new ArrayList<>(lineCount);
+    }
+
+    /**
+     * Creates a command with one line per line of <code>data</code>, split on <code>\n</code> and <code>\r\n</code>. Trailing empty lines are
+     * dropped.
+     */
+    static Command ofLines(CommandKey key, String data) {
+        int lineCount = 1;
+        for (int i = 0; i < data.length(); i++) {
+            if (data.charAt(i) == '\n') {
+                lineCount++;
+            }
+        }
+        Command command = new Command(key, lineCount);
+        if (lineCount == 1) {
+            command.lines.add(data);
+            return command;
+        }
+        int start = 0;
+        for (int i = 0; i < data.length(); i++) {
+            if (data.charAt(i) == '\n') {
+                int end = i > start && data.charAt(i - 1) == '\r' ? i - 1 : i;
+                command.lines.add(data.substring(start, end));
+                start = i + 1;
+            }
+        }
+        command.lines.add(data.substring(start));
+        while (!command.lines.isEmpty() && command.lines.get(command.lines.size() - 1).isEmpty()) {
+            command.lines.remove(command.lines.size() - 1);
+        }
+        return command;
     }
 
     public void addLine(Object data) {
         lines.add(String.valueOf(data));
-
+        text = null;
     }
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        sb.append(String.format("[[%s] %d]", key.name(), lines.size()));
-        sb.append('\n');
-        sb.append(lines.stream().map(line -> line + "\n").collect(Collectors.joining()));
-        return sb.toString();
-
+        if (text == null) {
+            String lineCount = String.valueOf(lines.size());
+            int length = key.name().length() + lineCount.length() + 6;
+            for (String line : lines) {
+                length += line.length() + 1;
+            }
+            StringBuilder sb = new StringBuilder(length);
+            sb.append("[[").append(key.name()).append("] ").append(lineCount).append("]\n");
+            for (String line : lines) {
+                sb.append(line).append('\n');
+            }
+            text = sb.toString();
+        }
+        return text;
     }
 
     CommandKey getKey() {
@@ -54,4 +94,4 @@ class Command {
         return lines;
     }
 
-}
\ No newline at end of file
+}
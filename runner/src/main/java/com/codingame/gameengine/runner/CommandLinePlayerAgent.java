@@ -12,6 +12,7 @@ public class CommandLinePlayerAgent extends Agent {
     private InputStream processStderr;
     private String commandLine;
     private Process process;
+    private PlayerProcessPool pool;
 
     public CommandLinePlayerAgent(String commandLine) {
         super();
@@ -21,6 +22,18 @@ public class CommandLinePlayerAgent extends Agent {
         }
     }
 
+    /**
+     * Creates an agent playing with a process taken from the given pool instead of a process started for the game.
+     *
+     * @param pool
+     *            the pool of processes of the AI
+     */
+    public CommandLinePlayerAgent(PlayerProcessPool pool) {
+        super();
+        this.commandLine = pool.getCommandLine();
+        this.pool = pool;
+    }
+
     @Override
     protected OutputStream getInputStream() {
         return processStdin;
@@ -39,10 +52,14 @@ public class CommandLinePlayerAgent extends Agent {
     @Override
     public void initialize(Properties conf) {
 
-        try {
-            this.process = Runtime.getRuntime().exec(commandLine);
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to launch " + commandLine, e);
+        if (pool != null) {
+            this.process = pool.take();
+        } else {
+            try {
+                this.process = Runtime.getRuntime().exec(commandLine);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to launch " + commandLine, e);
+            }
         }
         processStdin = process.getOutputStream();
         processStdout = process.getInputStream();
@@ -67,7 +84,21 @@ public class CommandLinePlayerAgent extends Agent {
 
     }
 
+    /**
+     * The agent is ready as long as its process is running: whether the AI has finished starting up cannot be known before it is sent input.
+     */
+    @Override
+    public boolean awaitReady(long deadline) {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Kills the process of the agent, so that it does not outlive the game.
+     */
     @Override
     public void destroy() {
+        if (process != null) {
+            process.destroyForcibly();
+        }
     }
 }
@@ -0,0 +1,263 @@
+package com.codingame.gameengine.runner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.codingame.gameengine.runner.dto.AgentDto;
+import com.codingame.gameengine.runner.dto.GameResult;
+import com.codingame.gameengine.runner.dto.Tooltip;
+
+/**
+ * Stores <code>GameResult</code> replays in a compact gzip compressed format, to archive many of them.
+ * <p>
+ * A replay is written field by field, straight from the result into the compressed stream, without building its JSON first. Each distinct
+ * string is written once, then referred to by its index: the <code>null</code> outputs and errors of the turns when an agent was not executed
+ * take a byte each.
+ */
+public final class CompressedReplay {
+    private static final int MAGIC = 0x43475250; // "CGRP"
+    private static final int VERSION = 1;
+
+    private CompressedReplay() {
+    }
+
+    /**
+     * Writes the given result to <code>out</code>, which is closed afterwards.
+     *
+     * @param result
+     *            the result of a game
+     * @param out
+     *            the stream to write the compressed replay into
+     * @throws IOException
+     *             if the replay cannot be written
+     */
+    public static void write(GameResult result, OutputStream out) throws IOException {
+        try (Writer writer = new Writer(new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(out))))) {
+            writer.out.writeInt(MAGIC);
+            writer.out.writeByte(VERSION);
+            writer.writeStringListMap(result.errors);
+            writer.writeStringListMap(result.outputs);
+            writer.writeStringList(result.summaries);
+            writer.writeStringList(result.views);
+            writer.writeIntMap(result.scores);
+            writer.writeStringList(result.uinput);
+            writer.writeString(result.metadata);
+            writer.writeVarint(result.tooltips.size());
+            for (Tooltip tooltip : result.tooltips) {
+                writer.writeString(tooltip.getText());
+                writer.writeVarint(tooltip.getEvent());
+                writer.writeVarint(tooltip.getTurn());
+            }
+            writer.writeIntMap(result.ids);
+            writer.writeVarint(result.agents.size());
+            for (AgentDto agent : result.agents) {
+                writer.writeVarint(agent.index);
+                writer.writeString(agent.name);
+                writer.writeString(agent.avatar);
+                writer.writeVarint(agent.agentId);
+            }
+            writer.writeString(result.failCause);
+        }
+    }
+
+    /**
+     * Reads back a result written by <code>write</code> from <code>in</code>, which is closed afterwards.
+     *
+     * @param in
+     *            the stream of a compressed replay
+     * @return the result of the game
+     * @throws IOException
+     *             if the replay cannot be read, or is not a compressed replay
+     */
+    public static GameResult read(InputStream in) throws IOException {
+        try (Reader reader = new Reader(new DataInputStream(new BufferedInputStream(new GZIPInputStream(in))))) {
+            if (reader.in.readInt() != MAGIC) {
+                throw new IOException("Not a compressed replay");
+            }
+            int version = reader.in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException("Unsupported compressed replay version: " + version);
+            }
+            GameResult result = new GameResult();
+            reader.readStringListMap(result.errors);
+            reader.readStringListMap(result.outputs);
+            reader.readStringList(result.summaries);
+            reader.readStringList(result.views);
+            reader.readIntMap(result.scores);
+            reader.readStringList(result.uinput);
+            result.metadata = reader.readString();
+            int tooltipCount = reader.readVarint();
+            for (int i = 0; i < tooltipCount; i++) {
+                String text = reader.readString();
+                int event = reader.readVarint();
+                int turn = reader.readVarint();
+                result.tooltips.add(new Tooltip(text, event, turn));
+            }
+            reader.readIntMap(result.ids);
+            int agentCount = reader.readVarint();
+            for (int i = 0; i < agentCount; i++) {
+                AgentDto agent = new AgentDto();
+                agent.index = reader.readVarint();
+                agent.name = reader.readString();
+                agent.avatar = reader.readString();
+                agent.agentId = reader.readVarint();
+                result.agents.add(agent);
+            }
+            result.failCause = reader.readString();
+            return result;
+        }
+    }
+
+    /**
+     * Strings are written as a varint: 0 for null, 1 followed by the string for a string not written yet, or 2 plus the index of a string
+     * already written, in order of appearance.
+     */
+    private static final class Writer implements AutoCloseable {
+        private final DataOutputStream out;
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        Writer(DataOutputStream out) {
+            this.out = out;
+        }
+
+        void writeVarint(int value) throws IOException {
+            // Zigzag encoded, so that the few negative values such as ids of unknown agents stay short
+            int zigzag = (value << 1) ^ (value >> 31);
+            while ((zigzag & ~0x7F) != 0) {
+                out.writeByte((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            out.writeByte(zigzag);
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                writeVarint(0);
+                return;
+            }
+            Integer index = indexes.get(value);
+            if (index != null) {
+                writeVarint(index + 2);
+                return;
+            }
+            indexes.put(value, indexes.size());
+            writeVarint(1);
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length);
+            out.write(bytes);
+        }
+
+        void writeStringList(List<String> values) throws IOException {
+            writeVarint(values.size());
+            for (String value : values) {
+                writeString(value);
+            }
+        }
+
+        void writeStringListMap(Map<String, List<String>> values) throws IOException {
+            writeVarint(values.size());
+            for (Entry<String, List<String>> entry : values.entrySet()) {
+                writeString(entry.getKey());
+                writeStringList(entry.getValue());
+            }
+        }
+
+        void writeIntMap(Map<Integer, Integer> values) throws IOException {
+            writeVarint(values.size());
+            for (Entry<Integer, Integer> entry : values.entrySet()) {
+                writeVarint(entry.getKey());
+                writeVarint(entry.getValue());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class Reader implements AutoCloseable {
+        private final DataInputStream in;
+        private final List<String> strings = new ArrayList<>();
+
+        Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        int readVarint() throws IOException {
+            int zigzag = 0;
+            int shift = 0;
+            int b;
+            do {
+                if (shift > 28) {
+                    throw new IOException("Malformed varint");
+                }
+                b = in.readUnsignedByte();
+                zigzag |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return (zigzag >>> 1) ^ -(zigzag & 1);
+        }
+
+        String readString() throws IOException {
+            int reference = readVarint();
+            if (reference == 0) {
+                return null;
+            }
+            if (reference > 1) {
+                if (reference - 2 >= strings.size()) {
+                    throw new IOException("Malformed string reference: " + reference);
+                }
+                return strings.get(reference - 2);
+            }
+            byte[] bytes = new byte[readVarint()];
+            in.readFully(bytes);
+            String value = new String(bytes, StandardCharsets.UTF_8);
+            strings.add(value);
+            return value;
+        }
+
+        void readStringList(List<String> values) throws IOException {
+            int size = readVarint();
+            for (int i = 0; i < size; i++) {
+                values.add(readString());
+            }
+        }
+
+        void readStringListMap(Map<String, List<String>> values) throws IOException {
+            int size = readVarint();
+            for (int i = 0; i < size; i++) {
+                String key = readString();
+                List<String> list = new ArrayList<>();
+                readStringList(list);
+                values.put(key, list);
+            }
+        }
+
+        void readIntMap(Map<Integer, Integer> values) throws IOException {
+            int size = readVarint();
+            for (int i = 0; i < size; i++) {
+                int key = readVarint();
+                values.put(key, readVarint());
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
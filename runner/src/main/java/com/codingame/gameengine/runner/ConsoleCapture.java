@@ -0,0 +1,165 @@
+package com.codingame.gameengine.runner;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Captures what the referee of a game prints on <code>System.out</code> and <code>System.err</code>.
+ * <p>
+ * The standard streams are replaced once for the whole JVM by streams which copy their bytes to the capture of the game the current thread belongs
+ * to. This way several games can run concurrently without mixing their referee outputs.
+ */
+final class ConsoleCapture {
+
+    /**
+     * Maximum number of bytes kept per stream between two drains. Extra bytes are still echoed to the console but not captured.
+     */
+    static final int MAX_CAPTURE_SIZE = 1024 * 1024;
+
+    private static final InheritableThreadLocal<ConsoleCapture> CURRENT = new InheritableThreadLocal<>();
+    private static boolean installed = false;
+
+    private final Buffer out = new Buffer();
+    private final Buffer err = new Buffer();
+
+    private static synchronized void install() {
+        if (!installed) {
+            System.setOut(new PrintStream(new RoutingStream(System.out, false)));
+            System.setErr(new PrintStream(new RoutingStream(System.err, true)));
+            installed = true;
+        }
+    }
+
+    /**
+     * Routes the console output of the current thread, and of the threads it starts from now on, to this capture.
+     */
+    void bind() {
+        install();
+        CURRENT.set(this);
+    }
+
+    /**
+     * Stops routing the console output of the current thread to this capture.
+     */
+    void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the capture the console output of the current thread is routed to, or null if there is none.
+     */
+    static ConsoleCapture current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Routes the console output of the current thread to the given capture, for threads which were not started by the thread the capture is
+     * bound to, such as the threads of an executor.
+     *
+     * @param capture
+     *            the capture to route to, or null to stop routing the console output of the current thread.
+     */
+    static void bind(ConsoleCapture capture) {
+        if (capture != null) {
+            capture.bind();
+        } else {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Returns and clears the captured standard output.
+     *
+     * @return the standard output captured since the last call.
+     */
+    String drainOut() {
+        return out.drain();
+    }
+
+    /**
+     * Returns and clears the captured standard error.
+     *
+     * @return the standard error captured since the last call.
+     */
+    String drainErr() {
+        return err.drain();
+    }
+
+    /**
+     * A byte buffer which silently drops what exceeds <code>MAX_CAPTURE_SIZE</code>.
+     */
+    private static class Buffer {
+        private byte[] bytes = new byte[256];
+        private int size = 0;
+
+        synchronized void write(int b) {
+            if (size < MAX_CAPTURE_SIZE) {
+                ensureCapacity(size + 1);
+                bytes[size++] = (byte) b;
+            }
+        }
+
+        synchronized void write(byte[] b, int off, int len) {
+            int kept = Math.min(len, MAX_CAPTURE_SIZE - size);
+            if (kept > 0) {
+                ensureCapacity(size + kept);
+                System.arraycopy(b, off, bytes, size, kept);
+                size += kept;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.min(MAX_CAPTURE_SIZE, Math.max(capacity, bytes.length * 2)));
+            }
+        }
+
+        synchronized String drain() {
+            String content = new String(bytes, 0, size);
+            size = 0;
+            return content;
+        }
+    }
+
+    private static class RoutingStream extends OutputStream {
+        private final PrintStream original;
+        private final boolean error;
+
+        RoutingStream(PrintStream original, boolean error) {
+            this.original = original;
+            this.error = error;
+        }
+
+        private Buffer getBuffer() {
+            ConsoleCapture capture = CURRENT.get();
+            if (capture == null) {
+                return null;
+            }
+            return error ? capture.err : capture.out;
+        }
+
+        @Override
+        public void write(int b) {
+            original.write(b);
+            Buffer buffer = getBuffer();
+            if (buffer != null) {
+                buffer.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            original.write(b, off, len);
+            Buffer buffer = getBuffer();
+            if (buffer != null) {
+                buffer.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() {
+            original.flush();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.codingame.gameengine.runner;
+
+import java.util.List;
+
+import com.codingame.gameengine.runner.dto.AgentDto;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Drops the outputs, errors, summaries and views of every turn, for simulations which only need the scores and other end results of a game.
+ */
+public class DiscardGameResultSink implements GameResultSink {
+
+    @Override
+    public void begin(List<AgentDto> agents) {
+    }
+
+    @Override
+    public void addOutput(String agent, String output) {
+    }
+
+    @Override
+    public void addError(String agent, String error) {
+    }
+
+    @Override
+    public void addSummary(String summary) {
+    }
+
+    @Override
+    public void addView(String view) {
+    }
+
+    @Override
+    public void end(GameResult result) {
+    }
+}
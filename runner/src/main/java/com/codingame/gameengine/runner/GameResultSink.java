@@ -0,0 +1,73 @@
+package com.codingame.gameengine.runner;
+
+import java.util.List;
+
+import com.codingame.gameengine.runner.dto.AgentDto;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Receives the result of a game turn by turn, as the game runner produces it.
+ * <p>
+ * The outputs, errors, summaries and views of every turn are pushed to the sink instead of being kept by the runner, so that a game streaming
+ * them elsewhere holds none of them in memory. Agents are identified by their index as a string, or by <code>"referee"</code>.
+ *
+ * @see InMemoryGameResultSink
+ * @see JsonLinesGameResultSink
+ * @see DiscardGameResultSink
+ */
+public interface GameResultSink {
+
+    /**
+     * Called once before the first turn of the game.
+     *
+     * @param agents
+     *            the agents playing the game
+     */
+    void begin(List<AgentDto> agents);
+
+    /**
+     * Called with what an agent printed on its standard output during a turn.
+     *
+     * @param agent
+     *            the index of the agent, or <code>"referee"</code>
+     * @param output
+     *            the output, or null if the agent did not play this turn
+     */
+    void addOutput(String agent, String output);
+
+    /**
+     * Called with what an agent printed on its standard error during a turn.
+     *
+     * @param agent
+     *            the index of the agent, or <code>"referee"</code>
+     * @param error
+     *            the error output, or null if there was none
+     */
+    void addError(String agent, String error);
+
+    /**
+     * Called with the game summary of a turn.
+     *
+     * @param summary
+     *            the summary, may be null
+     */
+    void addSummary(String summary);
+
+    /**
+     * Called with the view data of a turn.
+     *
+     * @param view
+     *            the view data, or null for a headless game or an invalid turn
+     */
+    void addView(String view);
+
+    /**
+     * Called once when the game has ended, including when the runner failed with an exception. The fail cause of the result then describes the
+     * exception, the turns pushed so far are all there is, and <code>begin</code> was not called if the game failed before its first turn.
+     *
+     * @param result
+     *            the rest of the result of the game: scores, tooltips, metadata, ids, agents and fail cause. Its outputs, errors, summaries and
+     *            views are left empty, unless they were pushed into this very result.
+     */
+    void end(GameResult result);
+}
@@ -1,43 +1,50 @@
 package com.codingame.gameengine.runner;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import com.codingame.gameengine.core.CommandHeaderParser;
+import com.codingame.gameengine.core.RefereeChannel;
+import com.codingame.gameengine.core.RefereeChannel.Message;
 import com.codingame.gameengine.runner.Command.InputCommand;
 import com.codingame.gameengine.runner.Command.OutputCommand;
 import com.codingame.gameengine.runner.dto.AgentDto;
 import com.codingame.gameengine.runner.dto.GameResult;
-import com.codingame.gameengine.runner.dto.Tooltip;
 import com.google.gson.Gson;
 
 abstract class GameRunner {
 
     static final String INTERRUPT_THREAD = "05&08#1981";
-    private static final Pattern COMMAND_HEADER_PATTERN = Pattern
-        .compile("\\[\\[(?<cmd>.+)\\] ?(?<lineCount>[0-9]+)\\]");
+    private static final CommandHeaderParser<InputCommand> COMMAND_HEADER_PARSER = new CommandHeaderParser<>(InputCommand.class);
+    private static final Command GET_GAME_INFO = new Command(OutputCommand.GET_GAME_INFO, 0);
+    private static final Command SET_PLAYER_TIMEOUT = new Command(OutputCommand.SET_PLAYER_TIMEOUT, 0);
 
     protected static Log log = LogFactory.getLog(GameRunner.class);
     GameResult gameResult = new GameResult();
-    private ByteArrayOutputStream refereeStdout;
-    private ByteArrayOutputStream refereeStderr;
-
-    private Agent referee;
+    private GameResultSink resultSink = new InMemoryGameResultSink(gameResult);
+    private final ConsoleCapture refereeConsole = new ConsoleCapture();
+    private boolean refereeConsoleCaptured = true;
+    private boolean headless = false;
+    private long bootstrapTimeout = 300;
+    private Executor executor;
+    private boolean playerClassesShared = false;
+
+    private RefereeAgent referee;
     protected final List<Agent> players;
-    private final List<AsynchronousWriter> writers = new ArrayList<>();
+    private final List<AgentTask> writers = new ArrayList<>();
     private final List<BlockingQueue<String>> queues = new ArrayList<>();
     private boolean gameEnded = false;
+    private final GameTurnInfo turnInfo = new GameTurnInfo();
+    private final NextPlayerInfo nextPlayerInfo = new NextPlayerInfo();
+    private String[] playerKeys;
 
     private String[] avatars = new String[] { "16085713250612", "16085756802960", "16085734516701", "16085746254929",
         "16085763837151", "16085720641630", "16085846089817", "16085834521247" };
@@ -49,30 +56,23 @@ abstract class GameRunner {
     protected GameRunner() {
         referee = new RefereeAgent();
         players = new ArrayList<Agent>();
-        refereeStdout = new ByteArrayOutputStream();
-        refereeStderr = new ByteArrayOutputStream();
     }
 
     private void initialize(Properties conf) {
         if (players.size() == 0) throw new RuntimeException("You have to add at least one player");
         if (players.size() > 8) throw new RuntimeException("You may add up to eight players only");
 
+        referee.setExecutor(executor);
         referee.initialize(conf);
-        gameResult.outputs.put("referee", new ArrayList<>());
-        gameResult.errors.put("referee", new ArrayList<>());
 
         for (int i = 0; i < players.size(); i++) {
-            String id = String.valueOf(i);
             Agent player = players.get(i);
+            player.setExecutor(executor);
+            if (player instanceof JavaPlayerAgent) {
+                ((JavaPlayerAgent) player).setClassShared(playerClassesShared);
+            }
             player.initialize(conf);
 
-            List<String> initOutputsValues = new ArrayList<>();
-            initOutputsValues.add(null);
-            gameResult.outputs.put(id, initOutputsValues);
-
-            List<String> initErrorsValues = new ArrayList<>();
-            gameResult.errors.put(id, initErrorsValues);
-
             AgentDto agent = new AgentDto();
             agent.index = i;
             agent.agentId = player.getAgentId();
@@ -81,6 +81,16 @@ abstract class GameRunner {
             agent.name = player.getNickname() != null ? player.getNickname() : "Player " + i;
             gameResult.agents.add(agent);
         }
+
+        playerKeys = new String[players.size()];
+        for (int i = 0; i < players.size(); i++) {
+            playerKeys[i] = String.valueOf(i);
+        }
+
+        resultSink.begin(gameResult.agents);
+        for (int i = 0; i < players.size(); i++) {
+            resultSink.addOutput(playerKeys[i], null);
+        }
     }
 
     private void bootstrapPlayers() {
@@ -95,17 +105,18 @@ abstract class GameRunner {
             throw new RuntimeException("Bootstrap of all players failed to bootsrap");
         }
 
-        try {
-            Thread.sleep(300); // Arbitrary time to wait for bootstrap
-        } catch (InterruptedException e) {
+        long deadline = System.nanoTime() + bootstrapTimeout * 1_000_000L;
+        for (Agent player : players) {
+            if (!player.isFailed() && !player.awaitReady(deadline)) {
+                log.info("Player " + player.getAgentId() + " is not ready after " + bootstrapTimeout + " ms");
+            }
         }
 
         for (Agent agent : players) {
             BlockingQueue<String> queue = new ArrayBlockingQueue<>(1024);
             AsynchronousWriter asyncWriter = new AsynchronousWriter(queue, agent.getInputStream());
-            writers.add(asyncWriter);
+            writers.add(AgentTask.start(asyncWriter, "Writer to player " + agent.getAgentId(), executor));
             queues.add(queue);
-            asyncWriter.start();
         }
     }
 
@@ -121,31 +132,25 @@ abstract class GameRunner {
 
         buildInitCommand(initCommand);
 
-        referee.sendInput(initCommand.toString());
+        sendRefereeCommand(initCommand);
         int round = 0;
         while (true) {
-            GameTurnInfo turnInfo = readGameInfo(round);
+            readGameInfo(round);
             boolean validTurn = turnInfo.isComplete();
 
-            gameResult.failCause = turnInfo.get(InputCommand.FAIL).orElse(null);
+            gameResult.failCause = turnInfo.get(InputCommand.FAIL);
 
             if (validTurn) {
-                gameResult.outputs.get("referee").add(refereeStdout.toString());
-                refereeStdout.reset();
-                gameResult.summaries.add(turnInfo.get(InputCommand.SUMMARY).orElse(null));
+                resultSink.addOutput("referee", refereeConsoleCaptured ? refereeConsole.drainOut() : null);
+                resultSink.addSummary(turnInfo.get(InputCommand.SUMMARY));
             }
 
-            if ((validTurn) && (!turnInfo.get(InputCommand.SCORES).isPresent())) {
-                NextPlayerInfo nextPlayerInfo = new NextPlayerInfo(
-                    turnInfo.get(InputCommand.NEXT_PLAYER_INFO).orElse(null)
-                );
-                String nextPlayerOutput = getNextPlayerOutput(
-                    nextPlayerInfo,
-                    turnInfo.get(InputCommand.NEXT_PLAYER_INPUT).orElse(null)
-                );
+            if ((validTurn) && (turnInfo.get(InputCommand.SCORES) == null)) {
+                TurnPayloadParser.parseNextPlayerInfo(turnInfo.get(InputCommand.NEXT_PLAYER_INFO), nextPlayerInfo);
+                String nextPlayerOutput = getNextPlayerOutput(nextPlayerInfo, turnInfo.get(InputCommand.NEXT_PLAYER_INPUT));
 
                 for (Agent a : players) {
-                    gameResult.outputs.get(String.valueOf(a.getAgentId())).add(a.getAgentId() == nextPlayerInfo.nextPlayer ? nextPlayerOutput : null);
+                    resultSink.addOutput(playerKeys[a.getAgentId()], a.getAgentId() == nextPlayerInfo.nextPlayer ? nextPlayerOutput : null);
                 }
 
                 if (nextPlayerOutput != null) {
@@ -160,38 +165,29 @@ abstract class GameRunner {
 
             readError(referee);
             if (!validTurn) {
-                gameResult.views.add(null);
+                resultSink.addView(null);
             } else {
-                gameResult.views.add(turnInfo.get(InputCommand.VIEW).orElse(null));
-
-                turnInfo.get(InputCommand.UINPUT).ifPresent(line -> {
-                    gameResult.uinput.add(line);
-                });
-
-                turnInfo.get(InputCommand.METADATA).ifPresent(line -> {
-                    gameResult.metadata = line;
-                });
-
-                final int currentRound = round;
-                turnInfo.get(InputCommand.TOOLTIP).ifPresent(line -> {
-                    String[] tooltipData = line.split("\n");
-                    for (int i = 0; i < tooltipData.length / 2; ++i) {
-                        String text = tooltipData[i * 2];
-                        int eventId = Integer.valueOf(tooltipData[i * 2 + 1]);
-                        gameResult.tooltips.add(new Tooltip(text, eventId, currentRound));
-                    }
-                });
-
-                turnInfo.get(InputCommand.SCORES).ifPresent(scores -> {
-                    for (String line : scores.split("\n")) {
-                        String[] parts = line.split(" ");
-                        if (parts.length > 1) {
-                            int player = Integer.decode(parts[0]);
-                            int score = Integer.decode(parts[1]);
-                            gameResult.scores.put(player, score);
-                        }
-                    }
-                });
+                resultSink.addView(headless ? null : turnInfo.get(InputCommand.VIEW));
+
+                String uinput = turnInfo.get(InputCommand.UINPUT);
+                if (uinput != null) {
+                    gameResult.uinput.add(uinput);
+                }
+
+                String metadata = turnInfo.get(InputCommand.METADATA);
+                if (metadata != null) {
+                    gameResult.metadata = metadata;
+                }
+
+                String tooltips = turnInfo.get(InputCommand.TOOLTIP);
+                if (tooltips != null) {
+                    TurnPayloadParser.parseTooltips(tooltips, round, gameResult.tooltips);
+                }
+
+                String scores = turnInfo.get(InputCommand.SCORES);
+                if (scores != null) {
+                    TurnPayloadParser.parseScores(scores, gameResult.scores);
+                }
             }
             round++;
             if (!validTurn || turnInfo.isEndTurn()) {
@@ -208,9 +204,7 @@ abstract class GameRunner {
     abstract protected void buildInitCommand(Command initCommand);
 
     private String getJSONResult() {
-        addPlayerIds();
-
-        return new Gson().toJson(gameResult);
+        return new Gson().toJson(((InMemoryGameResultSink) resultSink).getResult());
     }
 
     private void addPlayerIds() {
@@ -225,8 +219,7 @@ abstract class GameRunner {
     private void readInitFrameErrors() {
         for (int i = 0; i < players.size(); i++) {
             Agent player = players.get(i);
-            String id = String.valueOf(i);
-            gameResult.errors.get(id).add(player.readError());
+            resultSink.addError(playerKeys[i], player.readError());
         }
         readError(referee);
     }
@@ -236,23 +229,29 @@ abstract class GameRunner {
      */
     private void readError(Agent agent) {
         if (agent == referee) {
-            gameResult.errors.get("referee").add(refereeStderr.toString());
-            refereeStderr.reset();
+            resultSink.addError("referee", refereeConsoleCaptured ? refereeConsole.drainErr() : null);
         } else {
             for (Agent a : players) {
-                gameResult.errors.get(String.valueOf(a.getAgentId())).add(a == agent ? agent.readError() : null);
+                resultSink.addError(playerKeys[a.getAgentId()], a == agent ? agent.readError() : null);
             }
         }
     }
 
     private void sendPlayerOutput(String output, int nbLines) {
-        Command command = new Command(OutputCommand.SET_PLAYER_OUTPUT, output.split("(\\n|\\r\\n)"));
-        referee.sendInput(command.toString());
+        sendRefereeCommand(Command.ofLines(OutputCommand.SET_PLAYER_OUTPUT, output));
     }
 
     private void sendTimeOut() {
-        Command command = new Command(OutputCommand.SET_PLAYER_TIMEOUT);
-        referee.sendInput(command.toString());
+        sendRefereeCommand(SET_PLAYER_TIMEOUT);
+    }
+
+    private void sendRefereeCommand(Command command) {
+        RefereeChannel channel = referee.getChannel();
+        if (channel != null) {
+            channel.sendToReferee(new Message(command.getKey().name(), command.getLines()));
+        } else {
+            referee.sendInput(command.toString());
+        }
     }
 
     private String getNextPlayerOutput(NextPlayerInfo nextPlayerInfo, String nextPlayerInput) {
@@ -280,22 +279,24 @@ abstract class GameRunner {
         return playerOutput;
     }
 
-    private GameTurnInfo readGameInfo(int round) {
-        GameTurnInfo turnInfo = new GameTurnInfo();
+    /**
+     * Reads the commands of the referee for a turn into <code>turnInfo</code>.
+     */
+    private void readGameInfo(int round) {
+        turnInfo.clear();
 
-        referee.sendInput(new Command(OutputCommand.GET_GAME_INFO).toString());
+        sendRefereeCommand(GET_GAME_INFO);
 
         while (!turnInfo.isComplete() && !turnInfo.refereeHasFailed()) {
-            Command command = readCommand(referee, round);
-            if (command == null) {
-                return turnInfo;
-            }
-            turnInfo.put(command);
+            readCommand(referee, round);
         }
-        return turnInfo;
     }
 
-    private Command readCommand(Agent agent, int round) {
+    private void readCommand(Agent agent, int round) {
+        if (agent == referee && referee.getChannel() != null) {
+            readDirectCommand(referee.getChannel(), round);
+            return;
+        }
         try {
             String output = agent.getOutput(1, 150_000);
             if (output != null) {
@@ -305,10 +306,9 @@ abstract class GameRunner {
                 throw new RuntimeException("Invalid Referee command: " + output);
             }
 
-            Matcher m = COMMAND_HEADER_PATTERN.matcher(output.trim());
-            if (m.matches()) {
-                String command = m.group("cmd");
-                int nbLinesToRead = Integer.parseInt(m.group("lineCount"));
+            InputCommand command = COMMAND_HEADER_PARSER.parseCommand(output);
+            if (command != null) {
+                int nbLinesToRead = COMMAND_HEADER_PARSER.parseLineCount(output);
 
                 if (nbLinesToRead >= 0) {
                     output = agent.getOutput(nbLinesToRead, 150_000, round == 0);
@@ -322,13 +322,41 @@ abstract class GameRunner {
                             + (round == 0 ? RefereeAgent.REFEREE_MAX_BUFFER_SIZE_EXTRA : RefereeAgent.REFEREE_MAX_BUFFER_SIZE)
                     );
                 }
-                return new Command(InputCommand.valueOf(command), output);
+                turnInfo.put(command, output);
             } else {
                 throw new RuntimeException("Invalid referee command: " + output);
             }
         } catch (RuntimeException err) {
             err.printStackTrace();
-            return new Command(InputCommand.FAIL, err.toString());
+            turnInfo.put(InputCommand.FAIL, err.toString());
+        }
+    }
+
+    /**
+     * Reads a command of a referee running on a channel, giving it the same data as if it was read from the text protocol.
+     */
+    private void readDirectCommand(RefereeChannel channel, int round) {
+        try {
+            Message message = channel.receiveFromReferee(150_000, TimeUnit.MILLISECONDS);
+            if (message == null) {
+                throw new RuntimeException("Invalid Referee command: null");
+            }
+            List<String> lines = message.getLines();
+            String output = "";
+            if (!lines.isEmpty()) {
+                output = (lines.size() == 1 ? lines.get(0) : String.join("\n", lines)).replace('\r', '\n') + '\n';
+            }
+            int maxBufferSize = round == 0 ? RefereeAgent.REFEREE_MAX_BUFFER_SIZE_EXTRA : RefereeAgent.REFEREE_MAX_BUFFER_SIZE;
+            if (output.length() > maxBufferSize) {
+                throw new RuntimeException("Error reading Referee command. Buffer capacity: " + output.length() + " / " + maxBufferSize);
+            }
+            turnInfo.put(InputCommand.valueOf(message.getCommand()), output);
+        } catch (InterruptedException err) {
+            Thread.currentThread().interrupt();
+            turnInfo.put(InputCommand.FAIL, err.toString());
+        } catch (RuntimeException err) {
+            err.printStackTrace();
+            turnInfo.put(InputCommand.FAIL, err.toString());
         }
     }
 
@@ -375,6 +403,12 @@ abstract class GameRunner {
      *            the port on which to attempt to start the a server for the game's replay.
      */
     public void start(int port) {
+        if (headless) {
+            throw new IllegalStateException("A headless game has no replay to display");
+        }
+        if (!(resultSink instanceof InMemoryGameResultSink)) {
+            throw new IllegalStateException("A game streaming its result to a sink has no replay to display");
+        }
         runGame();
 
         new Renderer(port).render(players.size(), getJSONResult());
@@ -382,15 +416,120 @@ abstract class GameRunner {
 
     /**
      * Runs the game without a server and returns computed game results
+     * <p>
+     * When a game result sink is set, the outputs, errors, summaries and views of the game are only pushed to the sink and are left empty in
+     * the returned result.
      *
      * @return game result of the game
      */
     public GameResult simulate() {
         runGame();
-        addPlayerIds();
         return gameResult;
     }
 
+    /**
+     * Sets the sink which receives the outputs, errors, summaries and views of the game turn by turn. Default is to gather them in the
+     * result returned by <code>simulate()</code>.
+     * <p>
+     * Streaming them elsewhere keeps the memory used by a game from growing with its number of turns. A game with a sink other than an
+     * <code>InMemoryGameResultSink</code> cannot be started with a replay.
+     * 
+     * @param sink
+     *            the sink to push the result of the game into.
+     */
+    public void setGameResultSink(GameResultSink sink) {
+        if (sink == null) {
+            throw new IllegalArgumentException("The game result sink must not be null");
+        }
+        this.resultSink = sink;
+    }
+
+    /**
+     * Sets whether what the referee prints on the standard output and error is captured in the game result. Default is true.
+     * <p>
+     * When disabled, the referee's console output is only echoed to the console and the "referee" entries of the result's outputs and errors are
+     * null. This saves the capture cost in batch simulations which do not need them.
+     * 
+     * @param captured
+     *            whether to capture the referee's console output.
+     */
+    public void setRefereeConsoleCaptured(boolean captured) {
+        this.refereeConsoleCaptured = captured;
+    }
+
+    /**
+     * Sets whether the game is run without computing any view data. Default is false.
+     * <p>
+     * A headless game skips the serialization of every frame, which makes batch simulations much faster. Scores, game summaries, tooltips and
+     * metadata are unchanged but all the views of the result are null, so the game cannot be started with a replay.
+     * 
+     * @param headless
+     *            whether to skip computing view data.
+     */
+    public void setHeadless(boolean headless) {
+        this.headless = headless;
+        referee.setHeadless(headless);
+    }
+
+    /**
+     * Sets whether the referee exchanges commands with this runner directly in memory instead of through the text protocol. Default is false.
+     * <p>
+     * The referee always runs in the same JVM as the runner, so the text protocol is only needed to mimic the CodinGame platform exactly. A direct
+     * channel saves formatting and parsing every command, which speeds up simulations.
+     * 
+     * @param direct
+     *            whether to use a direct channel with the referee.
+     */
+    public void setDirectRefereeChannel(boolean direct) {
+        referee.setChannel(direct ? new RefereeChannel() : null);
+    }
+
+    /**
+     * Sets how long to wait at most for the players to be ready before the game starts. Default is 300 milliseconds.
+     * <p>
+     * The game starts as soon as every player reports it is ready: a Java AI once its class is loaded, an AI run as a system command once its
+     * process is running. A player which is still not ready when the time is up plays anyway.
+     * 
+     * @param bootstrapTimeout
+     *            the maximum time to wait, in milliseconds.
+     */
+    public void setBootstrapTimeout(long bootstrapTimeout) {
+        if (bootstrapTimeout < 0) {
+            throw new IllegalArgumentException("Invalid bootstrap timeout: " + bootstrapTimeout);
+        }
+        this.bootstrapTimeout = bootstrapTimeout;
+    }
+
+    /**
+     * Sets the executor to run the referee, the Java AIs and the writing of the inputs of every AI on. Default is a new thread for each of them.
+     * <p>
+     * Sharing an executor between many games running at the same time, such as one running each task on a virtual thread, keeps the number of
+     * threads down. Every task lasts as long as its game and blocks while waiting for the others, so the executor must be able to run
+     * <code>2 * players + 1</code> tasks at once for each game, or the games hang.
+     * 
+     * @param executor
+     *            the executor to run the tasks of the game on, or null to start a thread for each of them.
+     * @see BatchGameRunner#newAgentExecutor()
+     */
+    public void setAgentExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Sets whether the Java AIs with a <code>main</code> method reuse the classes loaded for the previous games of this JVM instead of loading
+     * them anew. Default is false.
+     * <p>
+     * Shared classes stay compiled by the JIT from game to game, which speeds up long batches of games. However the static fields of the AIs then
+     * keep their values from one game to the next and are shared by the games running at the same time, so only share the classes of AIs which
+     * keep no state in static fields.
+     * 
+     * @param shared
+     *            whether to share the classes of the Java AIs between games.
+     */
+    public void setPlayerClassesShared(boolean shared) {
+        this.playerClassesShared = shared;
+    }
+
     private void requireGameNotEnded() {
         if (gameEnded) {
             throw new RuntimeException("This game has ended");
@@ -401,33 +540,46 @@ abstract class GameRunner {
      * Simulates the game and gathers game results
      */
     private void runGame() {
-        PrintStream out = System.out;
-        System.setOut(new PrintStream(new OutputStream() {
-            @Override
-            public void write(int b) throws IOException {
-                out.write(b);
-                refereeStdout.write(b);
+        // Before anything else, so that running the game again leaves the result of its first run untouched
+        requireGameNotEnded();
+        if (refereeConsoleCaptured) {
+            refereeConsole.bind();
+        }
+        try {
+            try {
+                Properties conf = new Properties();
+                initialize(conf);
+
+                runAgents();
+            } catch (RuntimeException | Error e) {
+                if (gameResult.failCause == null) {
+                    gameResult.failCause = e.toString();
+                }
+                throw e;
+            } finally {
+                // Also when the game fails, so that the agents and the writers of their inputs are stopped and the sink is closed
+                stopWriters();
+                referee.destroy();
+                destroyPlayers();
+                gameEnded = true;
+
+                addPlayerIds();
+                resultSink.end(gameResult);
             }
-        }));
-        PrintStream err = System.err;
-        System.setErr(new PrintStream(new OutputStream() {
-            @Override
-            public void write(int b) throws IOException {
-                err.write(b);
-                refereeStderr.write(b);
+        } finally {
+            if (refereeConsoleCaptured) {
+                refereeConsole.unbind();
             }
-        }));
-        requireGameNotEnded();
-        Properties conf = new Properties();
-        initialize(conf);
-        
-        runAgents();
-        
-        referee.destroy();
-        destroyPlayers();
-        gameEnded = true;
-        System.setOut(out);
-        System.setErr(err);
+        }
+    }
+
+    /**
+     * Stops the writers of the inputs of the players, which otherwise wait for one more input when the game failed
+     */
+    private void stopWriters() {
+        for (AgentTask writer : writers) {
+            writer.cancel();
+        }
     }
 
     /**
@@ -439,17 +591,13 @@ abstract class GameRunner {
         }
     }
 
+    /**
+     * The player to execute next, reused every turn and filled by <code>TurnPayloadParser</code>.
+     */
     static class NextPlayerInfo {
 
         int nextPlayer;
         int nbLinesNextOutput;
         long timeout;
-
-        NextPlayerInfo(String command) {
-            String[] nextPlayerInfo = command.split("\n");
-            nextPlayer = Integer.decode(nextPlayerInfo[0]);
-            nbLinesNextOutput = Integer.decode(nextPlayerInfo[1]);
-            timeout = Long.decode(nextPlayerInfo[2]);
-        }
     }
 }
@@ -1,22 +1,35 @@
 package com.codingame.gameengine.runner;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-
-import com.codingame.gameengine.runner.Command.CommandKey;
 import com.codingame.gameengine.runner.Command.InputCommand;
 
+/**
+ * The commands received from the referee during a turn, indexed by their ordinal. A single instance is cleared and reused every turn.
+ */
 class GameTurnInfo {
-    private Map<CommandKey, Command> received;
+    private static final int NORMAL_TURN = mask(InputCommand.NEXT_PLAYER_INPUT, InputCommand.VIEW, InputCommand.NEXT_PLAYER_INFO, InputCommand.INFOS);
+    private static final int END_TURN = mask(InputCommand.SCORES, InputCommand.VIEW, InputCommand.INFOS);
+
+    private final String[] received = new String[InputCommand.values().length];
+    private int receivedMask;
+
+    private static int mask(InputCommand... commands) {
+        int mask = 0;
+        for (InputCommand command : commands) {
+            mask |= 1 << command.ordinal();
+        }
+        return mask;
+    }
 
-    GameTurnInfo() {
-        received = new HashMap<>();
+    void clear() {
+        receivedMask = 0;
+        for (int i = 0; i < received.length; i++) {
+            received[i] = null;
+        }
     }
 
-    void put(Command command) {
-        received.put(command.getKey(), command);
+    void put(InputCommand command, String data) {
+        receivedMask |= 1 << command.ordinal();
+        received[command.ordinal()] = data;
     }
 
     boolean isComplete() {
@@ -26,38 +39,23 @@ class GameTurnInfo {
     boolean isEndTurn() {
         return isCompleteEndTurn();
     }
-    
+
     boolean refereeHasFailed() {
-        return received.containsKey(InputCommand.FAIL);
+        return (receivedMask & (1 << InputCommand.FAIL.ordinal())) != 0;
     }
 
     private boolean isCompleteEndTurn() {
-        return received.containsKey(InputCommand.SCORES)
-                &&
-                received.containsKey(InputCommand.VIEW)
-                &&
-                received.containsKey(InputCommand.INFOS);
+        return (receivedMask & END_TURN) == END_TURN;
     }
 
     private boolean isCompleteNormalTurn() {
-        return received.containsKey(InputCommand.NEXT_PLAYER_INPUT)
-                &&
-                received.containsKey(InputCommand.VIEW)
-                &&
-                received.containsKey(InputCommand.NEXT_PLAYER_INFO)
-                &&
-                received.containsKey(InputCommand.INFOS);
-    }
-
-    public Optional<String> get(CommandKey key) {
-        Command command = received.get(key);
-        if (command == null) {
-            return Optional.empty();
-        }
-        List<String> lines = command.getLines();
-        if (lines.isEmpty()) {
-            return Optional.empty();
-        }
-        return Optional.of(lines.get(0));
+        return (receivedMask & NORMAL_TURN) == NORMAL_TURN;
+    }
+
+    /**
+     * @return the data of the given command, or null if it was not received this turn
+     */
+    String get(InputCommand command) {
+        return received[command.ordinal()];
     }
-}
\ No newline at end of file
+}
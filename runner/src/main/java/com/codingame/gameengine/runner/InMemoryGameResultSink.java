@@ -0,0 +1,76 @@
+package com.codingame.gameengine.runner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.codingame.gameengine.runner.dto.AgentDto;
+import com.codingame.gameengine.runner.dto.GameResult;
+
+/**
+ * Gathers the whole result of a game in a <code>GameResult</code>. This is what a game runner does by default.
+ */
+public class InMemoryGameResultSink implements GameResultSink {
+    private final GameResult result;
+
+    /**
+     * Creates a sink gathering the result of a game in a new <code>GameResult</code>.
+     */
+    public InMemoryGameResultSink() {
+        this(new GameResult());
+    }
+
+    InMemoryGameResultSink(GameResult result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the result of the game, complete once the game has ended
+     */
+    public GameResult getResult() {
+        return result;
+    }
+
+    @Override
+    public void begin(List<AgentDto> agents) {
+        result.outputs.put("referee", new ArrayList<>());
+        result.errors.put("referee", new ArrayList<>());
+        for (AgentDto agent : agents) {
+            result.outputs.put(String.valueOf(agent.index), new ArrayList<>());
+            result.errors.put(String.valueOf(agent.index), new ArrayList<>());
+        }
+    }
+
+    @Override
+    public void addOutput(String agent, String output) {
+        result.outputs.get(agent).add(output);
+    }
+
+    @Override
+    public void addError(String agent, String error) {
+        result.errors.get(agent).add(error);
+    }
+
+    @Override
+    public void addSummary(String summary) {
+        result.summaries.add(summary);
+    }
+
+    @Override
+    public void addView(String view) {
+        result.views.add(view);
+    }
+
+    @Override
+    public void end(GameResult endResult) {
+        if (endResult == result) {
+            return;
+        }
+        result.scores.putAll(endResult.scores);
+        result.uinput.addAll(endResult.uinput);
+        result.metadata = endResult.metadata;
+        result.tooltips.addAll(endResult.tooltips);
+        result.ids.putAll(endResult.ids);
+        result.agents.addAll(endResult.agents);
+        result.failCause = endResult.failCause;
+    }
+}
@@ -3,38 +3,40 @@ package com.codingame.gameengine.runner;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
 import java.io.PrintStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-import javassist.ClassPool;
-import javassist.CodeConverter;
-import javassist.CtClass;
-import javassist.CtConstructor;
-import javassist.CtField;
-import javassist.CtMethod;
-import javassist.Loader;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 
 /**
  * A participating AI written as a Java class.
  */
 public class JavaPlayerAgent extends Agent {
-    private JavaAgentThread javaRunnerThread = null;
+    private static Log log = LogFactory.getLog(JavaPlayerAgent.class);
+
+    private JavaAgentRunner javaRunner = null;
+    private AgentTask task = null;
+    private boolean classShared = false;
     private String codeMain = "Player";
 
-    private PipedInputStream agentStdin = new PipedInputStream(100_000);
-    private PipedOutputStream agentStdout = new PipedOutputStream();
-    private PipedOutputStream agentStderr = new PipedOutputStream();
+    private BlockingPipe stdinPipe = new BlockingPipe(100_000);
+    private BlockingPipe stdoutPipe = new BlockingPipe(100_000);
+    private BlockingPipe stderrPipe = new BlockingPipe(100_000);
+
+    private InputStream agentStdin = stdinPipe.getSource();
+    private OutputStream agentStdout = stdoutPipe.getSink();
+    private OutputStream agentStderr = stderrPipe.getSink();
 
-    private OutputStream processStdin;
-    private InputStream processStdout;
-    private InputStream processStderr;
+    private OutputStream processStdin = stdinPipe.getSink();
+    private InputStream processStdout = stdoutPipe.getSource();
+    private InputStream processStderr = stderrPipe.getSource();
 
     /**
      * @param className
@@ -44,14 +46,6 @@ public class JavaPlayerAgent extends Agent {
         super();
 
         codeMain = className;
-
-        try {
-            processStdin = new PipedOutputStream(agentStdin);
-            processStdout = new PipedInputStream(agentStdout, 100_000);
-            processStderr = new PipedInputStream(agentStderr, 100_000);
-        } catch (IOException e) {
-            throw new RuntimeException("Cannot initialize Player Agent", e);
-        }
     }
 
     @Override
@@ -73,6 +67,14 @@ public class JavaPlayerAgent extends Agent {
     public void initialize(Properties conf) {
     }
 
+    /**
+     * Sets whether the AI reuses the classes loaded for the previous games instead of loading them anew. Only applies to AIs with a
+     * <code>main</code> method.
+     */
+    void setClassShared(boolean classShared) {
+        this.classShared = classShared;
+    }
+
     /**
      * Launch the agent. After the call, agent is ready to process input / output
      * 
@@ -81,40 +83,58 @@ public class JavaPlayerAgent extends Agent {
      */
     @Override
     protected void runInputOutput() throws Exception {
-        javaRunnerThread = new JavaAgentThread(codeMain, agentStdin, agentStdout, agentStderr);
-        javaRunnerThread.start();
+        javaRunner = new JavaAgentRunner(codeMain, classShared, agentStdin, agentStdout, agentStderr);
+        task = AgentTask.start(javaRunner, "Java player " + codeMain, getExecutor());
     }
 
+    /**
+     * The agent is ready once its class is loaded and its code is about to run.
+     */
+    @Override
+    public boolean awaitReady(long deadline) {
+        if (javaRunner == null) {
+            return false;
+        }
+        try {
+            return javaRunner.ready.await(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Stops the AI cooperatively: its streams are closed so that it fails on its next read or stops blocking on a write, and the thread running
+     * it is interrupted. An AI which ignores both, such as one stuck in a loop, is left running on its thread.
+     */
     @Override
     public void destroy() {
-        if (javaRunnerThread != null) {
-            javaRunnerThread.setStopping(true);
-            javaRunnerThread.interrupt();
-            try {
-                javaRunnerThread.join(100);
-            } catch (InterruptedException ie) {
-                // TODO
-            }
-            if (javaRunnerThread.isAlive()) {
-                // TODO
-                javaRunnerThread.interrupt();
-                // javaRunnerThread.destroy();
-                javaRunnerThread.stop();
+        if (task != null) {
+            javaRunner.setStopping(true);
+            stdinPipe.getSource().close();
+            stdoutPipe.getSource().close();
+            stderrPipe.getSource().close();
+            task.cancel();
+            if (!task.awaitEnd(100)) {
+                log.warn("The Java AI " + codeMain + " of player " + getAgentId() + " did not stop");
             }
         }
     }
 
-    static class JavaAgentThread extends Thread {
+    static class JavaAgentRunner implements Runnable {
         InputStream stdin;
         PrintStream stdout;
         PrintStream stderr;
-        boolean stopping = false;
+        volatile boolean stopping = false;
+        final CountDownLatch ready = new CountDownLatch(1);
 
         private String className;
+        private boolean classShared;
 
-        public JavaAgentThread(String mainClass, InputStream stdin, OutputStream stdout, OutputStream stderr)
+        public JavaAgentRunner(String mainClass, boolean classShared, InputStream stdin, OutputStream stdout, OutputStream stderr)
                 throws ClassNotFoundException, NoSuchMethodException {
             className = mainClass;
+            this.classShared = classShared;
             this.stdin = stdin;
             this.stdout = new PrintStream(stdout);
             this.stderr = new PrintStream(stderr);
@@ -124,57 +144,6 @@ public class JavaPlayerAgent extends Agent {
             this.stopping = stopping;
         }
 
-        private static Class<?> redirectIOs(String className, PrintStream out, PrintStream err, InputStream in) {
-            try {
-                String newName = "Agent" + (int) (Math.random() * 1_000_000);
-                ClassPool pool = ClassPool.getDefault();
-                CtClass cc = pool.getAndRename(className, newName);
-
-                cc.setModifiers(cc.getModifiers() | Modifier.PUBLIC);
-
-                try {
-                    CtField field = new CtField(pool.get("java.io.PrintStream"), "system_out", cc);
-                    field.setModifiers(Modifier.PUBLIC | Modifier.STATIC);
-                    cc.addField(field);
-                } catch (javassist.bytecode.DuplicateMemberException e) {
-                    System.err.println(e.getMessage());
-                }
-                try {
-                    CtField field = new CtField(pool.get("java.io.PrintStream"), "system_err", cc);
-                    field.setModifiers(Modifier.PUBLIC | Modifier.STATIC);
-                    cc.addField(field);
-                } catch (javassist.bytecode.DuplicateMemberException e) {
-                    System.err.println(e.getMessage());
-                }
-                try {
-                    CtField field = new CtField(pool.get("java.io.InputStream"), "system_in", cc);
-                    field.setModifiers(Modifier.PUBLIC | Modifier.STATIC);
-                    cc.addField(field);
-                } catch (javassist.bytecode.DuplicateMemberException e) {
-                    System.err.println(e.getMessage());
-                }
-
-                CodeConverter conv = new CodeConverter();
-                conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("out"), cc, "system_out");
-                conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("err"), cc, "system_err");
-                conv.redirectFieldAccess(pool.getCtClass("java.lang.System").getField("in"), cc, "system_in");
-                for (CtMethod m : cc.getDeclaredMethods()) {
-                    m.instrument(conv);
-                }
-                for (CtConstructor c : cc.getDeclaredConstructors()) {
-                    c.instrument(conv);
-                }
-
-                Class<?> c = new Loader(pool).loadClass(newName);
-                c.getDeclaredField("system_out").set(null, out);
-                c.getDeclaredField("system_err").set(null, err);
-                c.getDeclaredField("system_in").set(null, in);
-                return c;
-            } catch (Exception e) {
-                throw new RuntimeException(e);
-            }
-        }
-
         @Override
         public void run() {
             try {
@@ -182,12 +151,18 @@ public class JavaPlayerAgent extends Agent {
                     Constructor<?> c = Class.forName(className).getConstructor(InputStream.class, PrintStream.class,
                             PrintStream.class);
                     c.setAccessible(true);
+                    ready.countDown();
                     c.newInstance(stdin, stdout, stderr);
                 } catch (java.lang.NoSuchMethodException e) {
                     try {
-                        Method m = redirectIOs(className, this.stdout, this.stderr, stdin).getMethod("main",
-                                String[].class);
-                        m.invoke(null, new Object[1]);
+                        Method m = PlayerClassCache.load(className, classShared).getMethod("main", String[].class);
+                        PlayerStreams.bind(stdin, stdout, stderr);
+                        ready.countDown();
+                        try {
+                            m.invoke(null, new Object[1]);
+                        } finally {
+                            PlayerStreams.unbind();
+                        }
                     } catch (java.lang.NoSuchMethodException e2) {
                         System.err.println("No main found for class " + className);
                         System.exit(1);
@@ -207,6 +182,9 @@ public class JavaPlayerAgent extends Agent {
                 }
                 stdout.close();
                 stderr.close();
+            } finally {
+                // A failed agent will not get any readier
+                ready.countDown();
             }
         }
     }
@@ -0,0 +1,115 @@
+package com.codingame.gameengine.runner;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import com.codingame.gameengine.runner.dto.AgentDto;
+import com.codingame.gameengine.runner.dto.GameResult;
+import com.google.gson.Gson;
+
+/**
+ * Streams the result of a game to a file as it is produced, one JSON object per line.
+ * <p>
+ * Each line has a <code>type</code>: <code>agents</code> first, then <code>output</code>, <code>error</code>, <code>summary</code> and
+ * <code>view</code> lines in the order of the game, then a final <code>result</code> line with the rest of the <code>GameResult</code>. Outputs
+ * and errors also have the <code>agent</code> they come from. The value is in <code>data</code>, omitted when null.
+ */
+public class JsonLinesGameResultSink implements GameResultSink {
+    private final Path path;
+    private Writer writer;
+    private final Gson gson = new Gson();
+
+    /**
+     * Creates a sink writing to the given file, which is replaced if it exists.
+     * <p>
+     * The file is only opened once the game pushes its first line, so that sinks created ahead of their games hold no file open.
+     *
+     * @param path
+     *            the file to write the result into
+     */
+    public JsonLinesGameResultSink(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates a sink writing to the given writer, which is closed when the game ends.
+     *
+     * @param writer
+     *            the writer to write the result into
+     */
+    public JsonLinesGameResultSink(Writer writer) {
+        this.path = null;
+        this.writer = writer;
+    }
+
+    @Override
+    public void begin(List<AgentDto> agents) {
+        writeLine("agents", null, gson.toJson(agents));
+    }
+
+    @Override
+    public void addOutput(String agent, String output) {
+        writeLine("output", agent, output == null ? null : gson.toJson(output));
+    }
+
+    @Override
+    public void addError(String agent, String error) {
+        writeLine("error", agent, error == null ? null : gson.toJson(error));
+    }
+
+    @Override
+    public void addSummary(String summary) {
+        writeLine("summary", null, summary == null ? null : gson.toJson(summary));
+    }
+
+    @Override
+    public void addView(String view) {
+        writeLine("view", null, view == null ? null : gson.toJson(view));
+    }
+
+    @Override
+    public void end(GameResult result) {
+        writeLine("result", null, gson.toJson(result));
+        try {
+            getWriter().close();
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the game result", e);
+        }
+    }
+
+    private Writer getWriter() {
+        if (writer == null) {
+            try {
+                writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new RuntimeException("Cannot create the game result file", e);
+            }
+        }
+        return writer;
+    }
+
+    private void writeLine(String type, String agent, String data) {
+        Writer writer = getWriter();
+        try {
+            writer.write("{\"type\":\"");
+            writer.write(type);
+            if (agent != null) {
+                writer.write("\",\"agent\":");
+                writer.write(gson.toJson(agent));
+            } else {
+                writer.write('"');
+            }
+            if (data != null) {
+                writer.write(",\"data\":");
+                writer.write(data);
+            }
+            writer.write("}\n");
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot write the game result", e);
+        }
+    }
+}
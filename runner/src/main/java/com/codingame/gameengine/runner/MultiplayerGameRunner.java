@@ -107,6 +107,30 @@ public class MultiplayerGameRunner extends GameRunner {
         addAgent(new CommandLinePlayerAgent(commandLine), nickname, avatarUrl);
     }
 
+    /**
+     * Adds an AI to the next game to run, playing with a process taken from the given pool.
+     * 
+     * @param pool
+     *            the pool of processes of the AI.
+     */
+    public void addAgent(PlayerProcessPool pool) {
+        addAgent(new CommandLinePlayerAgent(pool), null, null);
+    }
+
+    /**
+     * Adds an AI to the next game to run, playing with a process taken from the given pool.
+     * 
+     * @param pool
+     *            the pool of processes of the AI.
+     * @param nickname
+     *            the player's nickname
+     * @param avatarUrl
+     *            the url of the player's avatar
+     */
+    public void addAgent(PlayerProcessPool pool, String nickname, String avatarUrl) {
+        addAgent(new CommandLinePlayerAgent(pool), nickname, avatarUrl);
+    }
+
     @Override
     protected void buildInitCommand(Command initCommand) {
         if (seed != null) {
@@ -0,0 +1,164 @@
+package com.codingame.gameengine.runner;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Modifier;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+import javassist.ClassPool;
+import javassist.CodeConverter;
+import javassist.CtBehavior;
+import javassist.CtClass;
+
+/**
+ * Loads the classes of the Java AIs which have a <code>main</code> method, with their reads of <code>System.in</code>, <code>System.out</code>
+ * and <code>System.err</code> redirected to {@link PlayerStreams}.
+ * <p>
+ * A class is instrumented once and its bytecode is kept, keyed by the name of the class and checked against the hash of its class file, so that
+ * a class recompiled while the JVM runs is instrumented again. Each game then loads the kept bytecode in a class loader of its own, so that the
+ * static fields of the AI start afresh, or all the games share the classes of the AI, which stay compiled by the JIT from game to game.
+ */
+final class PlayerClassCache {
+
+    private static final String[] SHARED_PACKAGES = { "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.w3c.", "org.xml.",
+        "com.codingame.gameengine." };
+
+    private static final ConcurrentHashMap<String, InstrumentedClass> CACHE = new ConcurrentHashMap<>();
+
+    private PlayerClassCache() {
+    }
+
+    /**
+     * Loads the instrumented class of an AI.
+     *
+     * @param className
+     *            the name of the class of the AI
+     * @param shared
+     *            whether to reuse the classes loaded for the previous games instead of loading them anew
+     * @return the instrumented class
+     * @throws ClassNotFoundException
+     *             if the class file of the AI cannot be found
+     */
+    static Class<?> load(String className, boolean shared) throws ClassNotFoundException {
+        ClassLoader parent = PlayerClassCache.class.getClassLoader();
+        byte[] classFile = readClassFile(parent, className);
+        if (classFile == null) {
+            throw new ClassNotFoundException(className);
+        }
+        byte[] hash = hash(classFile);
+        InstrumentedClass instrumented = CACHE.compute(
+            className, (name, cached) -> cached != null && Arrays.equals(cached.hash, hash) ? cached : new InstrumentedClass(hash, instrument(classFile))
+        );
+        if (shared) {
+            return instrumented.getSharedClass(parent, className);
+        }
+        return new PlayerClassLoader(parent, className, instrumented.bytecode).loadClass(className);
+    }
+
+    private static byte[] instrument(byte[] classFile) {
+        try {
+            ClassPool pool = new ClassPool(true);
+            CtClass cc = pool.makeClass(new ByteArrayInputStream(classFile));
+            cc.setModifiers(cc.getModifiers() | Modifier.PUBLIC);
+
+            CtClass system = pool.get("java.lang.System");
+            CtClass streams = pool.get(PlayerStreams.class.getName());
+            CodeConverter conv = new CodeConverter();
+            conv.replaceFieldRead(system.getField("in"), streams, "in");
+            conv.replaceFieldRead(system.getField("out"), streams, "out");
+            conv.replaceFieldRead(system.getField("err"), streams, "err");
+            // Methods, constructors and the static initializer
+            for (CtBehavior behavior : cc.getDeclaredBehaviors()) {
+                behavior.instrument(conv);
+            }
+
+            byte[] bytecode = cc.toBytecode();
+            cc.detach();
+            return bytecode;
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot instrument the Java AI", e);
+        }
+    }
+
+    private static byte[] readClassFile(ClassLoader loader, String className) {
+        try (InputStream stream = loader.getResourceAsStream(className.replace('.', '/') + ".class")) {
+            return stream == null ? null : IOUtils.toByteArray(stream);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read the class " + className, e);
+        }
+    }
+
+    private static byte[] hash(byte[] classFile) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(classFile);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class InstrumentedClass {
+        final byte[] hash;
+        final byte[] bytecode;
+        private Class<?> sharedClass;
+
+        InstrumentedClass(byte[] hash, byte[] bytecode) {
+            this.hash = hash;
+            this.bytecode = bytecode;
+        }
+
+        synchronized Class<?> getSharedClass(ClassLoader parent, String className) throws ClassNotFoundException {
+            if (sharedClass == null) {
+                sharedClass = new PlayerClassLoader(parent, className, bytecode).loadClass(className);
+            }
+            return sharedClass;
+        }
+    }
+
+    /**
+     * Defines the instrumented class of an AI and, from their class files, the other classes it uses, so that they all belong to the same
+     * package at runtime. The classes of the JDK and of the engine are left to the parent loader.
+     */
+    private static class PlayerClassLoader extends ClassLoader {
+        private final String className;
+        private final byte[] bytecode;
+
+        PlayerClassLoader(ClassLoader parent, String className, byte[] bytecode) {
+            super(parent);
+            this.className = className;
+            this.bytecode = bytecode;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> loaded = findLoadedClass(name);
+                if (loaded == null) {
+                    byte[] classFile = isShared(name) ? null : name.equals(className) ? bytecode : readClassFile(getParent(), name);
+                    if (classFile == null) {
+                        return super.loadClass(name, resolve);
+                    }
+                    loaded = defineClass(name, classFile, 0, classFile.length);
+                }
+                if (resolve) {
+                    resolveClass(loaded);
+                }
+                return loaded;
+            }
+        }
+
+        private static boolean isShared(String name) {
+            for (String prefix : SHARED_PACKAGES) {
+                if (name.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
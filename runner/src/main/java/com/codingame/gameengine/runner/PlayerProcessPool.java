@@ -0,0 +1,144 @@
+package com.codingame.gameengine.runner;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Keeps processes of an AI run as a system command started in advance, so that games do not wait for the AI to start.
+ * <p>
+ * The pool always holds <code>size</code> processes, started in the background. Each game takes one of them and kills it when the game ends,
+ * as the state of a process which played a game cannot be reset, and the pool starts a new one in its place. This hides the startup time of AIs
+ * which are slow to start, such as JVM or Python programs, as long as games do not take processes faster than they start.
+ * <p>
+ * Add the pool to games in place of the command line of the AI. Close the pool to kill the processes which were not used.
+ */
+public class PlayerProcessPool implements AutoCloseable {
+
+    private static Log log = LogFactory.getLog(PlayerProcessPool.class);
+
+    private final String commandLine;
+    private final int size;
+    private final LinkedBlockingQueue<CompletableFuture<Process>> processes = new LinkedBlockingQueue<>();
+    private final ExecutorService launcher;
+    private final Object lock = new Object();
+    private boolean closed = false;
+
+    /**
+     * Creates a pool and starts its processes in the background.
+     *
+     * @param commandLine
+     *            the system command line to run the AI, executed as with <code>Runtime.getRuntime().exec()</code>.
+     * @param size
+     *            the number of processes to keep started in advance.
+     */
+    public PlayerProcessPool(String commandLine, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Invalid pool size: " + size);
+        }
+        this.commandLine = commandLine;
+        this.size = size;
+        this.launcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "Process pool of " + commandLine);
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < size; i++) {
+            processes.add(launchLater());
+        }
+    }
+
+    /**
+     * @return the command line run by the processes of this pool
+     */
+    public String getCommandLine() {
+        return commandLine;
+    }
+
+    /**
+     * Takes a started process out of the pool and starts another one in its place. Waits for a process if none has started yet.
+     * <p>
+     * Processes which exited while they waited in the pool are skipped. If every process of the pool has exited, the AI cannot start and the last
+     * process is returned anyway, so that the game fails as it would without a pool.
+     *
+     * @return a process of the AI, which the caller must kill once done with it
+     */
+    Process take() {
+        Process process = null;
+        for (int attempt = 0; attempt <= size; attempt++) {
+            CompletableFuture<Process> next;
+            synchronized (lock) {
+                if (closed) {
+                    throw new IllegalStateException("The process pool of " + commandLine + " is closed");
+                }
+                // Add first so that the queue is never empty, even when games take processes concurrently
+                processes.add(launchLater());
+                next = processes.poll();
+            }
+            if (process != null) {
+                discard(process);
+            }
+            process = join(next);
+            if (process.isAlive()) {
+                return process;
+            }
+        }
+        return process;
+    }
+
+    /**
+     * Kills a process which will not play and closes its streams, which would otherwise stay open as long as the pool.
+     */
+    private static void discard(Process process) {
+        process.destroyForcibly();
+        try {
+            process.getOutputStream().close();
+            process.getInputStream().close();
+            process.getErrorStream().close();
+        } catch (IOException e) {
+            log.warn("Cannot close the streams of a process of the pool", e);
+        }
+    }
+
+    private static Process join(CompletableFuture<Process> process) {
+        try {
+            return process.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Process> launchLater() {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return Runtime.getRuntime().exec(commandLine);
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to launch " + commandLine, e);
+            }
+        }, launcher);
+    }
+
+    /**
+     * Kills the processes which were not taken and stops starting new ones. The processes taken by games are killed when their game ends.
+     */
+    @Override
+    public void close() {
+        synchronized (lock) {
+            closed = true;
+            launcher.shutdown();
+            CompletableFuture<Process> process;
+            while ((process = processes.poll()) != null) {
+                process.thenAccept(PlayerProcessPool::discard);
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.codingame.gameengine.runner;
+
+import java.io.InputStream;
+import java.io.PrintStream;
+
+/**
+ * The standard streams of the Java AIs which have a <code>main</code> method.
+ * <p>
+ * The code of these AIs is instrumented so that reading <code>System.in</code>, <code>System.out</code> or <code>System.err</code> calls this
+ * class instead, which returns the streams of the game the current thread plays in. This class is public only so that instrumented code can call
+ * it.
+ */
+public final class PlayerStreams {
+
+    private static final InheritableThreadLocal<PlayerStreams> CURRENT = new InheritableThreadLocal<>();
+
+    private final InputStream in;
+    private final PrintStream out;
+    private final PrintStream err;
+
+    private PlayerStreams(InputStream in, PrintStream out, PrintStream err) {
+        this.in = in;
+        this.out = out;
+        this.err = err;
+    }
+
+    /**
+     * Routes the standard streams of the AI run by the current thread, and by the threads it starts from now on, to the given streams.
+     */
+    static void bind(InputStream in, PrintStream out, PrintStream err) {
+        CURRENT.set(new PlayerStreams(in, out, err));
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @param field
+     *            always null, as for the read of a static field
+     * @return the standard input of the current AI
+     */
+    public static InputStream in(Object field) {
+        PlayerStreams streams = CURRENT.get();
+        return streams != null ? streams.in : System.in;
+    }
+
+    /**
+     * @param field
+     *            always null, as for the read of a static field
+     * @return the standard output of the current AI
+     */
+    public static PrintStream out(Object field) {
+        PlayerStreams streams = CURRENT.get();
+        return streams != null ? streams.out : System.out;
+    }
+
+    /**
+     * @param field
+     *            always null, as for the read of a static field
+     * @return the standard error of the current AI
+     */
+    public static PrintStream err(Object field) {
+        PlayerStreams streams = CURRENT.get();
+        return streams != null ? streams.err : System.err;
+    }
+}
@@ -151,6 +151,30 @@ public class SoloGameRunner extends GameRunner {
         setAgent(new CommandLinePlayerAgent(commandLine), nickname, avatarUrl);
     }
 
+    /**
+     * Sets an AI to the next game to run, playing with a process taken from the given pool.
+     * 
+     * @param pool
+     *            the pool of processes of the AI.
+     */
+    public void setAgent(PlayerProcessPool pool) {
+        setAgent(new CommandLinePlayerAgent(pool), null, null);
+    }
+
+    /**
+     * Sets an AI to the next game to run, playing with a process taken from the given pool.
+     * 
+     * @param pool
+     *            the pool of processes of the AI.
+     * @param nickname
+     *            the player's nickname
+     * @param avatarUrl
+     *            the url of the player's avatar
+     */
+    public void setAgent(PlayerProcessPool pool, String nickname, String avatarUrl) {
+        setAgent(new CommandLinePlayerAgent(pool), nickname, avatarUrl);
+    }
+
     @Override
     protected void buildInitCommand(Command initCommand) {
         if (testCaseInput != null && !testCaseInput.isEmpty()) {
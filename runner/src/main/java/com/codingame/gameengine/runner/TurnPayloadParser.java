@@ -0,0 +1,165 @@
+package com.codingame.gameengine.runner;
+
+import java.util.List;
+import java.util.Map;
+
+import com.codingame.gameengine.runner.GameRunner.NextPlayerInfo;
+import com.codingame.gameengine.runner.dto.Tooltip;
+
+/**
+ * Decodes the payloads of the <code>NEXT_PLAYER_INFO</code>, <code>TOOLTIP</code> and <code>SCORES</code> commands of the referee.
+ * <p>
+ * Payloads are read in place by index, without splitting them into lines and tokens. Numbers are decoded like <code>Integer.decode</code>
+ * and <code>Long.decode</code> would.
+ */
+final class TurnPayloadParser {
+
+    private TurnPayloadParser() {
+    }
+
+    /**
+     * Reads the index of the next player, its number of output lines and its timeout, one per line.
+     */
+    static void parseNextPlayerInfo(String payload, NextPlayerInfo info) {
+        int firstEnd = lineEnd(payload, 0);
+        int secondEnd = lineEnd(payload, firstEnd + 1);
+        int thirdEnd = lineEnd(payload, secondEnd + 1);
+        info.nextPlayer = (int) decode(payload, 0, firstEnd, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        info.nbLinesNextOutput = (int) decode(payload, firstEnd + 1, secondEnd, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        info.timeout = decode(payload, secondEnd + 1, thirdEnd, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads pairs of lines made of the text of a tooltip and its event id. An unpaired last line is ignored.
+     */
+    static void parseTooltips(String payload, int round, List<Tooltip> tooltips) {
+        int end = trimTrailingLineBreaks(payload);
+        int start = 0;
+        while (start < end) {
+            int textEnd = lineEnd(payload, start, end);
+            if (textEnd == end) {
+                return;
+            }
+            int eventEnd = lineEnd(payload, textEnd + 1, end);
+            int eventId = parseDecimalInt(payload, textEnd + 1, eventEnd);
+            tooltips.add(new Tooltip(payload.substring(start, textEnd), eventId, round));
+            start = eventEnd + 1;
+        }
+    }
+
+    /**
+     * Reads lines made of the index of a player and its score, separated by a space. Lines with nothing but spaces after their first token are
+     * ignored.
+     */
+    static void parseScores(String payload, Map<Integer, Integer> scores) {
+        int end = trimTrailingLineBreaks(payload);
+        int start = 0;
+        while (start < end) {
+            int lineEnd = lineEnd(payload, start, end);
+            int playerEnd = tokenEnd(payload, start, lineEnd);
+            if (hasTokenAfter(payload, playerEnd, lineEnd)) {
+                int scoreEnd = tokenEnd(payload, playerEnd + 1, lineEnd);
+                int player = (int) decode(payload, start, playerEnd, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                int score = (int) decode(payload, playerEnd + 1, scoreEnd, Integer.MIN_VALUE, Integer.MAX_VALUE);
+                scores.put(player, score);
+            }
+            start = lineEnd + 1;
+        }
+    }
+
+    private static int lineEnd(String payload, int start) {
+        return lineEnd(payload, start, payload.length());
+    }
+
+    private static int lineEnd(String payload, int start, int end) {
+        int i = start;
+        while (i < end && payload.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int tokenEnd(String payload, int start, int end) {
+        int i = start;
+        while (i < end && payload.charAt(i) != ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean hasTokenAfter(String payload, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (payload.charAt(i) != ' ') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int trimTrailingLineBreaks(String payload) {
+        int end = payload.length();
+        while (end > 0 && payload.charAt(end - 1) == '\n') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Decodes a plain decimal number in place, falling back to <code>Long.decode</code> for the hexadecimal, octal and otherwise unusual
+     * numbers it also accepts.
+     */
+    private static long decode(String payload, int start, int end, long min, long max) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (payload.charAt(i) == '-' || payload.charAt(i) == '+')) {
+            negative = payload.charAt(i) == '-';
+            i++;
+        }
+        // Leading zeros mean octal for Long.decode
+        if (i == end || (payload.charAt(i) == '0' && end - i > 1) || end - i > 18) {
+            return decodeSlowly(payload, start, end, min, max);
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = payload.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return decodeSlowly(payload, start, end, min, max);
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < min || value > max) {
+            throw new NumberFormatException("Value out of range: " + payload.substring(start, end));
+        }
+        return value;
+    }
+
+    private static long decodeSlowly(String payload, int start, int end, long min, long max) {
+        String number = payload.substring(start, end);
+        return max == Long.MAX_VALUE ? Long.decode(number) : Integer.decode(number);
+    }
+
+    /**
+     * Parses a decimal number in place like <code>Integer.parseInt</code>.
+     */
+    private static int parseDecimalInt(String payload, int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (payload.charAt(i) == '-' || payload.charAt(i) == '+')) {
+            negative = payload.charAt(i) == '-';
+            i++;
+        }
+        if (i == end || end - i > 9) {
+            return Integer.parseInt(payload.substring(start, end));
+        }
+        int value = 0;
+        for (; i < end; i++) {
+            int digit = payload.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new NumberFormatException("For input string: \"" + payload.substring(start, end) + "\"");
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+}
@@ -10,4 +10,16 @@ public class Tooltip {
         this.text = text;
         this.event = eventId;
     }
+
+    public String getText() {
+        return text;
+    }
+
+    public Integer getEvent() {
+        return event;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
 }